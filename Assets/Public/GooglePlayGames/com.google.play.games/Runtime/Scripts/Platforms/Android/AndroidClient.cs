@@ -44,13 +44,25 @@ namespace GooglePlayGames.Android
 
         private volatile ISavedGameClient mSavedGameClient;
         private volatile IEventsClient mEventsClient;
+        private volatile AndroidJavaObject mAchievementMirror;
         private volatile Player mUser = null;
         private volatile AuthState mAuthState = AuthState.Unauthenticated;
         private IUserProfile[] mFriends = new IUserProfile[0];
         private LoadFriendsStatus mLastLoadFriendsStatus = LoadFriendsStatus.Unknown;
 
         AndroidJavaClass mGamesClass;
+        AndroidJavaClass mClientRegistryClass;
+        private readonly object ClientsLock = new object();
+        private volatile bool mCachedClientsStale;
+        private AndroidJavaObject mAchievementsClient;
+        private AndroidJavaObject mPlayersClient;
+        private AndroidJavaObject mLeaderboardsClient;
+        private AndroidJavaObject mPlayerStatsClient;
+        private AndroidJavaObject mGameStatsClient;
         private static string TasksClassName = "com.google.android.gms.tasks.Tasks";
+        private static string BridgeStartupClassName = "com.google.games.bridge.BridgeStartup";
+        private static string MainThreadWatchdogClassName = "com.google.games.bridge.MainThreadWatchdog";
+        private static string HelperFragmentClassName = "com.google.games.bridge.HelperFragment";
 
         private AndroidJavaObject mFriendsResolutionException = null;
 
@@ -61,6 +73,8 @@ namespace GooglePlayGames.Android
         internal AndroidClient()
         {
             mGamesClass = new AndroidJavaClass("com.google.android.gms.games.PlayGames");
+            mClientRegistryClass = new AndroidJavaClass("com.google.games.bridge.ClientRegistry");
+            mClientRegistryClass.CallStatic("setGenerationListener", new ClientGenerationListener(this));
             PlayGamesHelperObject.CreateObject();
             InitializeSdk();
         }
@@ -149,10 +163,11 @@ namespace GooglePlayGames.Android
                                         mEventsClient = new AndroidEventsClient();
                                     }
 
+                                    StartAchievementMirror();
                                     mAuthState = AuthState.Authenticated;
+                                    WarmUpClients();
                                     InvokeCallbackOnGameThread(callback, SignInStatus.Success);
                                     OurUtils.Logger.d("Authentication succeeded");
-                                    LoadAchievements(ignore => { });
                                 }
                                 else
                                 {
@@ -176,6 +191,7 @@ namespace GooglePlayGames.Android
             }
             else
             {
+                ClearAchievementMirror();
                 lock (AuthStateLock)
                 {
                     OurUtils.Logger.e("Returning an error code.");
@@ -184,6 +200,76 @@ namespace GooglePlayGames.Android
             }
         }
 
+        // Creates the Play Games clients on a background Java thread so the first
+        // API calls made from the game thread don't pay for their initialization.
+        private static void WarmUpClients()
+        {
+            using (var bridgeStartup = new AndroidJavaClass(BridgeStartupClassName))
+            using (var activity = AndroidHelperFragment.GetActivity())
+            {
+                bridgeStartup.CallStatic("warmUpClients", activity);
+            }
+        }
+
+        /// <summary>
+        /// Returns the time spent in each bridge start-up phase (native library
+        /// loading and client warm-up), one phase per line.
+        /// </summary>
+        public static string GetStartupTimings()
+        {
+            using (var bridgeStartup = new AndroidJavaClass(BridgeStartupClassName))
+            {
+                return bridgeStartup.CallStatic<string>("getStartupTimings");
+            }
+        }
+
+        /// <summary>
+        /// Starts measuring how long bridge calls hold the Android main thread.
+        /// Calls longer than <paramref name="thresholdMillis"/> are kept with
+        /// their stack, up to <paramref name="maxStalls"/> of the longest ones.
+        /// </summary>
+        public static void EnableMainThreadWatchdog(int thresholdMillis, int maxStalls = 32)
+        {
+            using (var watchdog = new AndroidJavaClass(MainThreadWatchdogClassName))
+            {
+                watchdog.CallStatic("enable", thresholdMillis, maxStalls);
+            }
+        }
+
+        public static void DisableMainThreadWatchdog()
+        {
+            using (var watchdog = new AndroidJavaClass(MainThreadWatchdogClassName))
+            {
+                watchdog.CallStatic("disable");
+            }
+        }
+
+        /// <summary>
+        /// Returns the main thread watchdog report: frame overruns while bridge
+        /// work ran, totals per bridge entry point and the longest calls.
+        /// </summary>
+        public static string DumpMainThreadStalls()
+        {
+            using (var watchdog = new AndroidJavaClass(MainThreadWatchdogClassName))
+            {
+                return watchdog.CallStatic<string>("dump");
+            }
+        }
+
+        /// <summary>
+        /// Chooses how resolution intents, such as the friends list consent,
+        /// are launched. By default the plugin launches them directly; when
+        /// disabled, a transparent activity is started to launch them, as in
+        /// earlier versions.
+        /// </summary>
+        public static void SetDirectIntentLaunchEnabled(bool enabled)
+        {
+            using (var helperFragment = new AndroidJavaClass(HelperFragmentClassName))
+            {
+                helperFragment.CallStatic("setDirectLaunchEnabled", enabled);
+            }
+        }
+
         public void RequestServerSideAccess(bool forceRefreshToken, Action<string> callback)
         {
             callback = AsOnGameThreadCallback(callback);
@@ -420,11 +506,152 @@ namespace GooglePlayGames.Android
                 callback);
         }
 
+        /// <summary>
+        /// Starts streaming the friends list. The next page is loaded in the
+        /// background once no more than <paramref name="lowWaterMark"/> friends
+        /// are left to read, and at most <paramref name="maxBufferedPages"/>
+        /// unread pages are kept.
+        /// </summary>
+        public FriendsIterator StreamFriends(int pageSize, int lowWaterMark, int maxBufferedPages = 2,
+            bool forceReload = false)
+        {
+            using (var activity = AndroidHelperFragment.GetActivity())
+            {
+                var iterator = new AndroidJavaObject("com.google.games.bridge.FriendsIterator", activity,
+                    pageSize, lowWaterMark, maxBufferedPages, forceReload);
+                iterator.Call("start");
+                return new FriendsIterator(iterator);
+            }
+        }
+
+        public class FriendsIterator : IDisposable
+        {
+            private AndroidJavaObject mIterator;
+
+            internal FriendsIterator(AndroidJavaObject iterator)
+            {
+                mIterator = iterator;
+            }
+
+            /// <summary>
+            /// Returns up to <paramref name="maxCount"/> friends not returned
+            /// before. Returns an empty array while the next page is loading.
+            /// </summary>
+            public IUserProfile[] Next(int maxCount)
+            {
+                var friends = mIterator.Call<AndroidJavaObject[]>("next", maxCount);
+                var profiles = new IUserProfile[friends.Length];
+                for (int i = 0; i < friends.Length; i++)
+                {
+                    using (friends[i])
+                    {
+                        profiles[i] = AndroidJavaConverter.ToPlayerProfileFromFriend(friends[i]);
+                    }
+                }
+
+                return profiles;
+            }
+
+            /// <summary>
+            /// Looks up a friend loaded so far, or returns null.
+            /// </summary>
+            public IUserProfile FindFriend(string playerId)
+            {
+                using (var friend = mIterator.Call<AndroidJavaObject>("findFriend", playerId))
+                {
+                    return friend == null ? null : AndroidJavaConverter.ToPlayerProfileFromFriend(friend);
+                }
+            }
+
+            public int Available
+            {
+                get { return mIterator.Call<int>("available"); }
+            }
+
+            public int LoadedCount
+            {
+                get { return mIterator.Call<int>("getLoadedCount"); }
+            }
+
+            public bool IsLoading
+            {
+                get { return mIterator.Call<bool>("isLoading"); }
+            }
+
+            public bool IsComplete
+            {
+                get { return mIterator.Call<bool>("isComplete"); }
+            }
+
+            /// <summary>
+            /// The status code of the last failed page load, or 0 if the last
+            /// load succeeded.
+            /// </summary>
+            public int FailureStatusCode
+            {
+                get { return mIterator.Call<int>("getFailureStatusCode"); }
+            }
+
+            public void Retry()
+            {
+                mIterator.Call("retry");
+            }
+
+            /// <summary>
+            /// True if the last page load failed because the player has not
+            /// allowed access to the friends list. Call
+            /// <see cref="AskForResolution"/> to ask for it.
+            /// </summary>
+            public bool IsResolutionRequired
+            {
+                get { return mIterator.Call<bool>("isResolutionRequired"); }
+            }
+
+            /// <summary>
+            /// Shows the friends list consent dialog for the last failed page
+            /// load. If the player allows access, the page is loaded again.
+            /// </summary>
+            public void AskForResolution(Action<UIStatus> callback)
+            {
+                var resolution = mIterator.Call<AndroidJavaObject>("getResolution");
+                if (resolution == null)
+                {
+                    OurUtils.Logger.w("No friends list resolution to ask for; the last load did not need one.");
+                    InvokeCallbackOnGameThread(callback, UIStatus.InternalError);
+                    return;
+                }
+
+                AndroidHelperFragment.AskForLoadFriendsResolution(resolution, AsOnGameThreadCallback<UIStatus>(
+                    status =>
+                    {
+                        resolution.Dispose();
+                        if (status == UIStatus.Valid && mIterator != null)
+                        {
+                            mIterator.Call("retry");
+                        }
+
+                        if (callback != null)
+                        {
+                            callback(status);
+                        }
+                    }));
+            }
+
+            public void Dispose()
+            {
+                if (mIterator != null)
+                {
+                    mIterator.Dispose();
+                    mIterator = null;
+                }
+            }
+        }
+
         private void LoadFriendsPaginated(int pageSize, bool isLoadMore, bool forceReload,
             Action<LoadFriendsStatus> callback)
         {
             mFriendsResolutionException = null;
-            using (var playersClient = getPlayersClient())
+            var playersClient = getPlayersClient();
             using (var task = isLoadMore
                 ? playersClient.Call<AndroidJavaObject>("loadMoreFriends", pageSize)
                 : playersClient.Call<AndroidJavaObject>("loadFriends", pageSize,
@@ -503,7 +730,7 @@ namespace GooglePlayGames.Android
                 GooglePlayGames.OurUtils.Logger.d("The developer asked for access to the friends " +
                                                   "list but there is no intent to trigger the UI. This may be because the user " +
                                                   "has granted access already or the game has not called loadFriends() before.");
-                using (var playersClient = getPlayersClient())
+                var playersClient = getPlayersClient();
                 using (
                     var task = playersClient.Call<AndroidJavaObject>("loadFriends", /* pageSize= */ 1,
                         /* forceReload= */ false))
@@ -561,7 +788,7 @@ namespace GooglePlayGames.Android
         public void GetFriendsListVisibility(bool forceReload,
             Action<FriendsListVisibilityStatus> callback)
         {
-            using (var playersClient = getPlayersClient())
+            var playersClient = getPlayersClient();
             using (
                 var task = playersClient.Call<AndroidJavaObject>("getCurrentPlayer", forceReload))
             {
@@ -620,7 +847,7 @@ namespace GooglePlayGames.Android
 
         public void GetPlayerStats(Action<CommonStatusCodes, PlayerStats> callback)
         {
-            using (var playerStatsClient = getPlayerStatsClient())
+            var playerStatsClient = getPlayerStatsClient();
             using (var task = playerStatsClient.Call<AndroidJavaObject>("loadPlayerStats", /* forceReload= */ false))
             {
                 AndroidTaskUtils.AddOnSuccessListener<AndroidJavaObject>(
@@ -675,8 +902,8 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var playersClient = getPlayersClient())
             {
+                var playersClient = getPlayersClient();
                 object countLock = new object();
                 int count = userIds.Length;
                 int resultCount = 0;
@@ -730,9 +957,110 @@ namespace GooglePlayGames.Android
             }
         }
 
+        // Opens the signed-in player's achievement mirror, which serves the
+        // achievements saved by the previous session and reconciles them with
+        // the service in the background. A mirror of another player is
+        // replaced, so that it is never served to this one.
+        private void StartAchievementMirror()
+        {
+            var current = mAchievementMirror;
+            if (current != null && current.Call<string>("getPlayerId") == mUser.id)
+            {
+                return;
+            }
+
+            using (var activity = AndroidHelperFragment.GetActivity())
+            {
+                var mirror = new AndroidJavaObject("com.google.games.bridge.AchievementMirror", activity, mUser.id);
+                mirror.Call("start");
+                mAchievementMirror = mirror;
+            }
+
+            if (current != null)
+            {
+                current.Dispose();
+            }
+        }
+
+        private void ClearAchievementMirror()
+        {
+            var mirror = mAchievementMirror;
+            mAchievementMirror = null;
+            if (mirror != null)
+            {
+                mirror.Dispose();
+            }
+        }
+
+        /// <summary>
+        /// Returns the achievement mirror statistics: entries, entries with local
+        /// changes not yet confirmed, saves and reconciles.
+        /// </summary>
+        public AchievementMirrorStats GetAchievementMirrorStats()
+        {
+            var mirror = mAchievementMirror;
+            if (mirror == null)
+            {
+                return null;
+            }
+
+            using (var stats = mirror.Call<AndroidJavaObject>("getStats"))
+            {
+                return new AchievementMirrorStats(stats);
+            }
+        }
+
+        public class AchievementMirrorStats
+        {
+            public readonly int Entries;
+            public readonly int PendingEntries;
+            public readonly bool LoadedFromDisk;
+            public readonly double DiskLoadMillis;
+            public readonly int CorruptFiles;
+            public readonly long Saves;
+            public readonly long BytesOnDisk;
+            public readonly long Reconciles;
+            public readonly long ReconcileFailures;
+            public readonly DateTime LastReconcileTime;
+
+            internal AchievementMirrorStats(AndroidJavaObject stats)
+            {
+                Entries = stats.Get<int>("entries");
+                PendingEntries = stats.Get<int>("pendingEntries");
+                LoadedFromDisk = stats.Get<bool>("loadedFromDisk");
+                DiskLoadMillis = stats.Get<double>("diskLoadMillis");
+                CorruptFiles = stats.Get<int>("corruptFiles");
+                Saves = stats.Get<long>("saves");
+                BytesOnDisk = stats.Get<long>("bytesOnDisk");
+                Reconciles = stats.Get<long>("reconciles");
+                ReconcileFailures = stats.Get<long>("reconcileFailures");
+                LastReconcileTime = AndroidJavaConverter.ToDateTime(stats.Get<long>("lastReconcileTimeMillis"));
+            }
+        }
+
         public void LoadAchievements(Action<Achievement[]> callback)
         {
-            using (var achievementsClient = getAchievementsClient())
+            // Once the mirror has data it answers without waiting for the
+            // service; the reconcile brings it up to date for later calls.
+            var mirror = mAchievementMirror;
+            if (mirror != null && mirror.Call<bool>("hasData"))
+            {
+                var entries = mirror.Call<AndroidJavaObject[]>("getAchievements");
+                Achievement[] mirrored = new Achievement[entries.Length];
+                for (int i = 0; i < entries.Length; i++)
+                {
+                    using (entries[i])
+                    {
+                        mirrored[i] = AndroidJavaConverter.ToAchievementFromMirror(entries[i]);
+                    }
+                }
+
+                mirror.Call("reconcile");
+                InvokeCallbackOnGameThread(callback, mirrored);
+                return;
+            }
+
+            var achievementsClient = getAchievementsClient();
             using (var task = achievementsClient.Call<AndroidJavaObject>("load", /* forceReload= */ false))
             {
                 AndroidTaskUtils.AddOnSuccessListener<AndroidJavaObject>(
@@ -795,11 +1123,19 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var achievementsClient = getAchievementsClient())
+            // The mirror applies the change to its copy and passes it on.
+            var mirror = mAchievementMirror;
+            if (mirror != null)
+            {
+                mirror.Call("unlock", achId);
+            }
+            else
             {
+                var achievementsClient = getAchievementsClient();
                 achievementsClient.Call("unlock", achId);
-                InvokeCallbackOnGameThread(callback, true);
             }
+
+            InvokeCallbackOnGameThread(callback, true);
         }
 
         public void RevealAchievement(string achId, Action<bool> callback)
@@ -810,11 +1146,18 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var achievementsClient = getAchievementsClient())
+            var mirror = mAchievementMirror;
+            if (mirror != null)
             {
+                mirror.Call("reveal", achId);
+            }
+            else
+            {
+                var achievementsClient = getAchievementsClient();
                 achievementsClient.Call("reveal", achId);
-                InvokeCallbackOnGameThread(callback, true);
             }
+
+            InvokeCallbackOnGameThread(callback, true);
         }
 
         public void IncrementAchievement(string achId, int steps, Action<bool> callback)
@@ -825,11 +1168,18 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var achievementsClient = getAchievementsClient())
+            var mirror = mAchievementMirror;
+            if (mirror != null)
+            {
+                mirror.Call("increment", achId, steps);
+            }
+            else
             {
+                var achievementsClient = getAchievementsClient();
                 achievementsClient.Call("increment", achId, steps);
-                InvokeCallbackOnGameThread(callback, true);
             }
+
+            InvokeCallbackOnGameThread(callback, true);
         }
 
         public void SetStepsAtLeast(string achId, int steps, Action<bool> callback)
@@ -840,11 +1190,18 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var achievementsClient = getAchievementsClient())
+            var mirror = mAchievementMirror;
+            if (mirror != null)
+            {
+                mirror.Call("setSteps", achId, steps);
+            }
+            else
             {
+                var achievementsClient = getAchievementsClient();
                 achievementsClient.Call("setSteps", achId, steps);
-                InvokeCallbackOnGameThread(callback, true);
             }
+
+            InvokeCallbackOnGameThread(callback, true);
         }
 
         public void ShowAchievementsUI(Action<UIStatus> callback)
@@ -887,8 +1244,8 @@ namespace GooglePlayGames.Android
             LeaderboardTimeSpan timeSpan,
             Action<LeaderboardScoreData> callback)
         {
-            using (var client = getLeaderboardsClient())
             {
+                var client = getLeaderboardsClient();
                 string loadScoresMethod =
                     start == LeaderboardStart.TopScores ? "loadTopScores" : "loadPlayerCenteredScores";
                 using (var task = client.Call<AndroidJavaObject>(
@@ -946,7 +1303,7 @@ namespace GooglePlayGames.Android
         public void LoadMoreScores(ScorePageToken token, int rowCount,
             Action<LeaderboardScoreData> callback)
         {
-            using (var client = getLeaderboardsClient())
+            var client = getLeaderboardsClient();
             using (var task = client.Call<AndroidJavaObject>("loadMoreScores",
                 token.InternalObject, rowCount, AndroidJavaConverter.ToPageDirection(token.Direction)))
             {
@@ -1058,8 +1415,8 @@ namespace GooglePlayGames.Android
                 InvokeCallbackOnGameThread(callback, false);
             }
 
-            using (var client = getLeaderboardsClient())
             {
+                var client = getLeaderboardsClient();
                 client.Call("submitScore", leaderboardId, score);
                 InvokeCallbackOnGameThread(callback, true);
             }
@@ -1073,8 +1430,8 @@ namespace GooglePlayGames.Android
                 InvokeCallbackOnGameThread(callback, false);
             }
 
-            using (var client = getLeaderboardsClient())
             {
+                var client = getLeaderboardsClient();
                 client.Call("submitScore", leaderboardId, score, metadata);
                 InvokeCallbackOnGameThread(callback, true);
             }
@@ -1096,27 +1453,100 @@ namespace GooglePlayGames.Android
             }
         }
 
+        // The achievements, players, leaderboards and stats clients come from the
+        // bridge's ClientRegistry and are kept for as long as the registry keeps
+        // them, instead of creating a new Java client and handle on every call.
+        // The handles must not be disposed by callers. The registry tells us when
+        // it drops its clients; the old handles are then disposed on the game
+        // thread, once the call that may still be using one has returned.
         private AndroidJavaObject getAchievementsClient()
         {
-            return mGamesClass.CallStatic<AndroidJavaObject>("getAchievementsClient",
-                AndroidHelperFragment.GetActivity());
+            return GetCachedClient(ref mAchievementsClient, "getAchievementsClient");
         }
 
         private AndroidJavaObject getPlayersClient()
         {
-            return mGamesClass.CallStatic<AndroidJavaObject>("getPlayersClient", AndroidHelperFragment.GetActivity());
+            return GetCachedClient(ref mPlayersClient, "getPlayersClient");
         }
 
         private AndroidJavaObject getLeaderboardsClient()
         {
-            return mGamesClass.CallStatic<AndroidJavaObject>("getLeaderboardsClient",
-                AndroidHelperFragment.GetActivity());
+            return GetCachedClient(ref mLeaderboardsClient, "getLeaderboardsClient");
         }
 
         private AndroidJavaObject getPlayerStatsClient()
         {
-            return mGamesClass.CallStatic<AndroidJavaObject>("getPlayerStatsClient",
-                AndroidHelperFragment.GetActivity());
+            return GetCachedClient(ref mPlayerStatsClient, "getPlayerStatsClient");
+        }
+
+        private AndroidJavaObject getGameStatsClient()
+        {
+            return GetCachedClient(ref mGameStatsClient, "getGameStatsClient");
+        }
+
+        private AndroidJavaObject GetCachedClient(ref AndroidJavaObject client, string getterName)
+        {
+            lock (ClientsLock)
+            {
+                // The registry drops the clients of a destroyed activity; drop our
+                // handles along with them.
+                if (mCachedClientsStale)
+                {
+                    mCachedClientsStale = false;
+                    DropCachedClients();
+                }
+
+                if (client == null)
+                {
+                    using (var activity = AndroidHelperFragment.GetActivity())
+                    {
+                        client = mClientRegistryClass.CallStatic<AndroidJavaObject>(getterName, activity);
+                    }
+                }
+
+                return client;
+            }
+        }
+
+        private void DropCachedClients()
+        {
+            var dropped = new[]
+            {
+                mAchievementsClient, mPlayersClient, mLeaderboardsClient, mPlayerStatsClient, mGameStatsClient
+            };
+            mAchievementsClient = null;
+            mPlayersClient = null;
+            mLeaderboardsClient = null;
+            mPlayerStatsClient = null;
+            mGameStatsClient = null;
+            PlayGamesHelperObject.RunOnGameThread(() =>
+            {
+                foreach (var client in dropped)
+                {
+                    if (client != null)
+                    {
+                        client.Dispose();
+                    }
+                }
+            });
+        }
+
+        // Marks the cached clients stale when the registry drops its own, so that
+        // GetCachedClient does not have to ask the registry on every call.
+        private class ClientGenerationListener : AndroidJavaProxy
+        {
+            private readonly AndroidClient mClient;
+
+            public ClientGenerationListener(AndroidClient client)
+                : base("com/google/games/bridge/ClientRegistry$GenerationListener")
+            {
+                mClient = client;
+            }
+
+            public void onGenerationChanged(int generation)
+            {
+                mClient.mCachedClientsStale = true;
+            }
         }
 
         private AndroidJavaObject getGamesSignInClient()
@@ -1131,12 +1561,6 @@ namespace GooglePlayGames.Android
                 AndroidHelperFragment.GetActivity());
         }
 
-        private AndroidJavaObject getGameStatsClient()
-        {
-            return mGamesClass.CallStatic<AndroidJavaObject>("getGameStatsClient",
-                AndroidHelperFragment.GetActivity());
-        }
-
         private AndroidJavaObject ToJavaPlayerGameEvent(PlayerGameEvent playerGameEvent)
         {
             // The Builder class name
@@ -1205,7 +1629,7 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var client = getGameStatsClient())
+            var client = getGameStatsClient();
             using (var javaEvent = ToJavaPlayerGameEvent(playerGameEvent))
             {
                 if (javaEvent != null)
@@ -1223,7 +1647,7 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var client = getGameStatsClient())
+            var client = getGameStatsClient();
             using (var javaEvents = ToJavaPlayerGameEventList(events))
             {
                 if (javaEvents != null)
@@ -1241,10 +1665,8 @@ namespace GooglePlayGames.Android
                 return;
             }
 
-            using (var client = getGameStatsClient())
-            {
-                client.Call("requestEventsUpload");
-            }
+            var client = getGameStatsClient();
+            client.Call("requestEventsUpload");
         }
     }
 }
@@ -13,9 +13,9 @@ namespace GooglePlayGames.Android
 
         public AndroidEventsClient()
         {
-            using (var gamesClass = new AndroidJavaClass("com.google.android.gms.games.PlayGames"))
+            using (var clientRegistry = new AndroidJavaClass("com.google.games.bridge.ClientRegistry"))
             {
-                mEventsClient = gamesClass.CallStatic<AndroidJavaObject>("getEventsClient",
+                mEventsClient = clientRegistry.CallStatic<AndroidJavaObject>("getEventsClient",
                     AndroidHelperFragment.GetActivity());
             }
         }
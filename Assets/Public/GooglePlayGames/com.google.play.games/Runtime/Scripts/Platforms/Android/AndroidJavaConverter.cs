@@ -160,6 +160,37 @@ namespace GooglePlayGames.Android
           playersBuffer.Call("release");
           return users;
         }
+
+        internal static IUserProfile ToPlayerProfileFromFriend(AndroidJavaObject friend) {
+          return new PlayerProfile(
+              friend.Get<string>("displayName"),
+              friend.Get<string>("playerId"),
+              friend.Get<string>("avatarUrl"),
+              friend.Get<bool>("isFriend"));
+        }
+
+        internal static Achievement ToAchievementFromMirror(AndroidJavaObject entry)
+        {
+            Achievement achievement = new Achievement();
+            achievement.Id = entry.Get<string>("id");
+            achievement.Description = entry.Get<string>("description");
+            achievement.Name = entry.Get<string>("name");
+            achievement.Points = (ulong) entry.Get<long>("xpValue");
+            achievement.LastModifiedTime = ToDateTime(entry.Get<long>("lastUpdatedTimestamp"));
+            achievement.RevealedImageUrl = entry.Get<string>("revealedImageUrl");
+            achievement.UnlockedImageUrl = entry.Get<string>("unlockedImageUrl");
+            achievement.IsIncremental = entry.Get<int>("type") == 1 /* TYPE_INCREMENTAL */;
+            if (achievement.IsIncremental)
+            {
+                achievement.CurrentSteps = entry.Get<int>("currentSteps");
+                achievement.TotalSteps = entry.Get<int>("totalSteps");
+            }
+
+            int state = entry.Get<int>("state");
+            achievement.IsUnlocked = state == 0 /* STATE_UNLOCKED */;
+            achievement.IsRevealed = state == 1 /* STATE_REVEALED */;
+            return achievement;
+        }
     }
 }
 #endif
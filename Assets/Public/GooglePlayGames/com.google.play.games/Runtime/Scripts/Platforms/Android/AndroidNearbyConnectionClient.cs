@@ -13,6 +13,9 @@ namespace GooglePlayGames.Android
     public class AndroidNearbyConnectionClient : INearbyConnectionClient
     {
         private volatile AndroidJavaObject mClient;
+        private volatile AndroidJavaObject mBroadcaster;
+        private volatile AndroidJavaObject mCompression;
+        private volatile AndroidJavaObject mSessions;
         private readonly static long NearbyClientId = 0L;
         private readonly static int ApplicationInfoFlags = 0x00000080;
         private readonly static string ServiceId = ReadServiceId();
@@ -22,11 +25,121 @@ namespace GooglePlayGames.Android
         {
             PlayGamesHelperObject.CreateObject();
             NearbyHelperObject.CreateObject(this);
-            using (var nearbyClass = new AndroidJavaClass("com.google.android.gms.nearby.Nearby"))
+            using (var clientRegistry = new AndroidJavaClass("com.google.games.bridge.ClientRegistry"))
             {
-                mClient = nearbyClass.CallStatic<AndroidJavaObject>("getConnectionsClient",
+                mClient = clientRegistry.CallStatic<AndroidJavaObject>("getConnectionsClient",
                     AndroidHelperFragment.GetActivity());
             }
+
+            mBroadcaster = new AndroidJavaObject("com.google.games.bridge.NearbyBroadcaster", mClient);
+            mCompression = new AndroidJavaObject("com.google.games.bridge.NearbyCompression");
+            mBroadcaster.Call("setCompression", mCompression);
+            mSessions = new AndroidJavaObject("com.google.games.bridge.NearbySessionManager", mClient, mBroadcaster);
+        }
+
+        /// <summary>
+        /// Keeps connections to peers that also enabled session resumption
+        /// alive across short radio dropouts. Until a dropped connection is
+        /// resumed or <paramref name="resumeTimeoutMillis"/> passes, the
+        /// disconnect is not reported; reliable messages sent meanwhile are
+        /// delivered after the resume, along with those the peer missed. Must
+        /// be called before advertising or requesting connections. Support is
+        /// announced in the advertised name, which peers on plugin versions
+        /// without session resumption show as is.
+        /// </summary>
+        public void EnableSessionResumption(int maxReplayMessages = 256, int resumeTimeoutMillis = 30000)
+        {
+            mSessions.Call("enable", maxReplayMessages, resumeTimeoutMillis);
+        }
+
+        /// <summary>
+        /// Returns the session statistics of an endpoint, or null if the
+        /// connection to it does not use session resumption.
+        /// </summary>
+        public SessionStats GetSessionStats(string endpointId)
+        {
+            Misc.CheckNotNull(endpointId, "endpointId");
+            using (var stats = mSessions.Call<AndroidJavaObject>("getStats", endpointId))
+            {
+                if (stats == null)
+                {
+                    return null;
+                }
+
+                return new SessionStats(stats);
+            }
+        }
+
+        public class SessionStats
+        {
+            public readonly int ReplayBufferSize;
+            public readonly bool Resumable;
+            public readonly long LastReceivedSequence;
+            public readonly int Resumes;
+            public readonly int ReconnectAttempts;
+            public readonly long ReplayedMessages;
+            public readonly long DuplicateMessages;
+
+            internal SessionStats(AndroidJavaObject stats)
+            {
+                ReplayBufferSize = stats.Get<int>("replayBufferSize");
+                Resumable = stats.Get<bool>("resumable");
+                LastReceivedSequence = stats.Get<long>("lastReceivedSequence");
+                Resumes = stats.Get<int>("resumes");
+                ReconnectAttempts = stats.Get<int>("reconnectAttempts");
+                ReplayedMessages = stats.Get<long>("replayedMessages");
+                DuplicateMessages = stats.Get<long>("duplicateMessages");
+            }
+        }
+
+        /// <summary>
+        /// Compresses messages on connections whose peer enabled compression
+        /// with the same dictionary. Must be called before advertising or
+        /// requesting connections. Messages shorter than
+        /// <paramref name="minMessageBytes"/> are sent as is, and compression is
+        /// suspended for an endpoint while the compressed size exceeds
+        /// <paramref name="maxRatio"/> of the original. Support is announced in
+        /// the advertised name, which peers on plugin versions without
+        /// compression show as is.
+        /// </summary>
+        public void EnableCompression(byte[] dictionary, int minMessageBytes = 128, double maxRatio = 0.9)
+        {
+            // An empty dictionary means none; null cannot be passed through JNI.
+            mCompression.Call("enable", dictionary ?? new byte[0], minMessageBytes, maxRatio);
+        }
+
+        public CompressionStats GetCompressionStats()
+        {
+            using (var stats = mCompression.Call<AndroidJavaObject>("getStats"))
+            {
+                return new CompressionStats(stats);
+            }
+        }
+
+        public class CompressionStats
+        {
+            public readonly bool Suspended;
+            public readonly int SuspendedEndpoints;
+            public readonly long MessagesCompressed;
+            public readonly long MessagesBelowThreshold;
+            public readonly long MessagesSentRaw;
+            public readonly long BytesSaved;
+            public readonly double CompressionRatio;
+            public readonly double CompressTimeMillis;
+            public readonly double DecompressTimeMillis;
+
+            internal CompressionStats(AndroidJavaObject stats)
+            {
+                Suspended = stats.Get<bool>("suspended");
+                SuspendedEndpoints = stats.Get<int>("suspendedEndpoints");
+                MessagesCompressed = stats.Get<long>("messagesCompressed");
+                MessagesBelowThreshold = stats.Get<long>("messagesBelowThreshold");
+                MessagesSentRaw = stats.Get<long>("messagesSentRaw");
+                BytesSaved = stats.Get<long>("bytesSaved");
+                CompressionRatio = stats.Get<double>("compressionRatio");
+                CompressTimeMillis = stats.Get<double>("compressTimeMillis");
+                DecompressTimeMillis = stats.Get<double>("decompressTimeMillis");
+            }
         }
 
         public int MaxUnreliableMessagePayloadLength()
@@ -41,25 +154,130 @@ namespace GooglePlayGames.Android
 
         public void SendReliable(List<string> recipientEndpointIds, byte[] payload)
         {
-            InternalSend(recipientEndpointIds, payload);
+            InternalSend(recipientEndpointIds, payload, true);
         }
 
         public void SendUnreliable(List<string> recipientEndpointIds, byte[] payload)
         {
-            InternalSend(recipientEndpointIds, payload);
+            InternalSend(recipientEndpointIds, payload, false);
         }
 
-        private void InternalSend(List<string> recipientEndpointIds, byte[] payload)
+        private void InternalSend(List<string> recipientEndpointIds, byte[] payload, bool reliable)
         {
             Misc.CheckNotNull(recipientEndpointIds);
             Misc.CheckNotNull(payload);
 
-            using (var payloadClass = new AndroidJavaClass("com.google.android.gms.nearby.connection.Payload"))
-            using (var payloadObject = payloadClass.CallStatic<AndroidJavaObject>("fromBytes", payload))
-            using (var task = mClient.Call<AndroidJavaObject>("sendPayload",
-                AndroidJavaConverter.ToJavaStringList(recipientEndpointIds),
-                payloadObject))
-                ;
+            // The broadcaster behind the sessions queues the message per
+            // endpoint, so one slow endpoint does not hold back the others.
+            using (var endpointIds = AndroidJavaConverter.ToJavaStringList(recipientEndpointIds))
+            {
+                mSessions.Call<int>("send", endpointIds, payload, reliable);
+            }
+        }
+
+        /// <summary>
+        /// Sets how messages to an endpoint are scheduled. An endpoint with a
+        /// higher weight is served proportionally more often when several
+        /// endpoints have messages waiting. Unreliable messages sent to an
+        /// endpoint whose queue already holds <paramref name="maxQueuedMessages"/>
+        /// are dropped and counted in <see cref="EndpointSendStats.DroppedMessages"/>.
+        /// Reliable messages are never dropped; they are queued past the limit
+        /// and counted in <see cref="EndpointSendStats.OverLimitMessages"/>.
+        /// </summary>
+        public void SetEndpointSendPolicy(string endpointId, int weight, int maxQueuedMessages,
+            long maxInFlightBytes)
+        {
+            Misc.CheckNotNull(endpointId, "endpointId");
+            mBroadcaster.Call("configureEndpoint", GetCurrentEndpointId(endpointId), weight, maxQueuedMessages,
+                maxInFlightBytes);
+        }
+
+        /// <summary>
+        /// Returns the send queue statistics of an endpoint, or null if nothing
+        /// was sent to it since it connected.
+        /// </summary>
+        public EndpointSendStats GetEndpointSendStats(string endpointId)
+        {
+            Misc.CheckNotNull(endpointId, "endpointId");
+            using (var stats = mBroadcaster.Call<AndroidJavaObject>("getStats", GetCurrentEndpointId(endpointId)))
+            {
+                if (stats == null)
+                {
+                    return null;
+                }
+
+                return new EndpointSendStats(stats);
+            }
+        }
+
+        public class EndpointSendStats
+        {
+            public readonly int QueueDepth;
+            public readonly int InFlightMessages;
+            public readonly long InFlightBytes;
+            public readonly long SentMessages;
+            public readonly long DroppedMessages;
+            public readonly long OverLimitMessages;
+            public readonly long FailedMessages;
+            public readonly double LastSendLatencyMillis;
+            public readonly double AverageSendLatencyMillis;
+            public readonly double MaxSendLatencyMillis;
+
+            internal EndpointSendStats(AndroidJavaObject stats)
+            {
+                QueueDepth = stats.Get<int>("queueDepth");
+                InFlightMessages = stats.Get<int>("inFlightMessages");
+                InFlightBytes = stats.Get<long>("inFlightBytes");
+                SentMessages = stats.Get<long>("sentMessages");
+                DroppedMessages = stats.Get<long>("droppedMessages");
+                OverLimitMessages = stats.Get<long>("overLimitMessages");
+                FailedMessages = stats.Get<long>("failedMessages");
+                LastSendLatencyMillis = stats.Get<double>("lastSendLatencyMillis");
+                AverageSendLatencyMillis = stats.Get<double>("averageSendLatencyMillis");
+                MaxSendLatencyMillis = stats.Get<double>("maxSendLatencyMillis");
+            }
+        }
+
+        // The game keeps the endpoint id of the first connection; after a session
+        // resumed, the broadcaster knows the peer by the id of the new one.
+        private string GetCurrentEndpointId(string endpointId)
+        {
+            return mSessions.Call<string>("getCurrentEndpointId", endpointId);
+        }
+
+        private AndroidJavaObject CreatePayloadCallback(IMessageListener listener)
+        {
+            var payloadCallback = new AndroidJavaObject("com.google.games.bridge.PayloadCallbackProxy",
+                new PayloadCallback(listener));
+            payloadCallback.Call("setTransferUpdateListener", mBroadcaster);
+            payloadCallback.Call("setCompression", mCompression);
+            payloadCallback.Call("setSessions", mSessions);
+            return payloadCallback;
+        }
+
+        private AndroidJavaObject CreateConnectionLifecycleCallback(AndroidJavaProxy callback)
+        {
+            var connectionLifecycleCallback =
+                new AndroidJavaObject("com.google.games.bridge.ConnectionLifecycleCallbackProxy", callback);
+            connectionLifecycleCallback.Call("setCompression", mCompression);
+            connectionLifecycleCallback.Call("setSessions", mSessions);
+            return connectionLifecycleCallback;
+        }
+
+        private AndroidJavaObject CreateEndpointDiscoveryCallback(AndroidJavaProxy callback)
+        {
+            var endpointDiscoveryCallback =
+                new AndroidJavaObject("com.google.games.bridge.EndpointDiscoveryCallbackProxy", callback);
+            endpointDiscoveryCallback.Call("setSessions", mSessions);
+            return endpointDiscoveryCallback;
+        }
+
+        private static string GetDisplayName(string advertisedName)
+        {
+            using (var compressionClass = new AndroidJavaClass("com.google.games.bridge.NearbyCompression"))
+            {
+                return compressionClass.CallStatic<string>("getDisplayName", advertisedName);
+            }
         }
 
         public void StartAdvertising(string name, List<string> appIdentifiers,
@@ -79,10 +297,11 @@ namespace GooglePlayGames.Android
 
             AdvertisingConnectionLifecycleCallbackProxy callbackProxy =
                 new AdvertisingConnectionLifecycleCallbackProxy(resultCallback, connectionRequestCallback, this);
-            using (var connectionLifecycleCallback =
-                new AndroidJavaObject("com.google.games.bridge.ConnectionLifecycleCallbackProxy", callbackProxy))
+            using (var connectionLifecycleCallback = CreateConnectionLifecycleCallback(callbackProxy))
             using (var advertisingOptions = CreateAdvertisingOptions())
-            using (var task = mClient.Call<AndroidJavaObject>("startAdvertising", name, GetServiceId(),
+            using (var task = mClient.Call<AndroidJavaObject>("startAdvertising",
+                mSessions.Call<string>("getAdvertisedName", mCompression.Call<string>("getAdvertisedName", name)),
+                GetServiceId(),
                 connectionLifecycleCallback, advertisingOptions))
             {
                 AndroidTaskUtils.AddOnSuccessListener<AndroidJavaObject>(
@@ -122,7 +341,7 @@ namespace GooglePlayGames.Android
 
             public void onConnectionInitiated(string endpointId, AndroidJavaObject connectionInfo)
             {
-                mLocalEndpointName = connectionInfo.Call<string>("getEndpointName");
+                mLocalEndpointName = GetDisplayName(connectionInfo.Call<string>("getEndpointName"));
                 mConnectionRequestCallback(new ConnectionRequest(endpointId, mLocalEndpointName, mClient.GetServiceId(),
                     new byte[0]));
             }
@@ -152,6 +371,7 @@ namespace GooglePlayGames.Android
 
             public void onDisconnected(string endpointId)
             {
+                mClient.mBroadcaster.Call("removeEndpoint", endpointId);
                 if (mClient.mAdvertisingMessageListener != null)
                 {
                     mClient.mAdvertisingMessageListener.OnRemoteEndpointDisconnected(endpointId);
@@ -172,10 +392,10 @@ namespace GooglePlayGames.Android
             responseCallback = ToOnGameThread(responseCallback);
             var listenerOnGameThread = new OnGameThreadMessageListener(listener);
             DiscoveringConnectionLifecycleCallback cb =
-                new DiscoveringConnectionLifecycleCallback(responseCallback, listenerOnGameThread, mClient);
-            using (var connectionLifecycleCallback =
-                new AndroidJavaObject("com.google.games.bridge.ConnectionLifecycleCallbackProxy", cb))
-            using (mClient.Call<AndroidJavaObject>("requestConnection", name, remoteEndpointId,
+                new DiscoveringConnectionLifecycleCallback(responseCallback, listenerOnGameThread, this);
+            using (var connectionLifecycleCallback = CreateConnectionLifecycleCallback(cb))
+            using (mSessions.Call<AndroidJavaObject>("requestConnection",
+                mCompression.Call<string>("getAdvertisedName", name), remoteEndpointId,
                 connectionLifecycleCallback))
                 ;
         }
@@ -185,9 +405,8 @@ namespace GooglePlayGames.Android
             Misc.CheckNotNull(listener, "listener");
             mAdvertisingMessageListener = new OnGameThreadMessageListener(listener);
 
-            using (var payloadCallback = new AndroidJavaObject("com.google.games.bridge.PayloadCallbackProxy",
-                new PayloadCallback(mAdvertisingMessageListener)))
-            using (mClient.Call<AndroidJavaObject>("acceptConnection", remoteEndpointId, payloadCallback))
+            using (var payloadCallback = CreatePayloadCallback(mAdvertisingMessageListener))
+            using (mSessions.Call<AndroidJavaObject>("acceptConnection", remoteEndpointId, payloadCallback))
                 ;
         }
 
@@ -228,9 +447,8 @@ namespace GooglePlayGames.Android
                 throw new InvalidOperationException("advertisingDuration must be positive");
             }
 
-            using (var endpointDiscoveryCallback = new AndroidJavaObject(
-                "com.google.games.bridge.EndpointDiscoveryCallbackProxy",
-                new EndpointDiscoveryCallback(listenerOnGameThread)))
+            using (var endpointDiscoveryCallback =
+                CreateEndpointDiscoveryCallback(new EndpointDiscoveryCallback(listenerOnGameThread)))
             using (var discoveryOptions = CreateDiscoveryOptions())
             using (var task = mClient.Call<AndroidJavaObject>("startDiscovery", serviceId, endpointDiscoveryCallback,
                 discoveryOptions))
@@ -246,10 +464,10 @@ namespace GooglePlayGames.Android
         {
             private Action<ConnectionResponse> mResponseCallback;
             private IMessageListener mListener;
-            private AndroidJavaObject mClient;
+            private AndroidNearbyConnectionClient mClient;
 
             public DiscoveringConnectionLifecycleCallback(Action<ConnectionResponse> responseCallback,
-                IMessageListener listener, AndroidJavaObject client) : base(
+                IMessageListener listener, AndroidNearbyConnectionClient client) : base(
                 "com/google/games/bridge/ConnectionLifecycleCallbackProxy$Callback")
             {
                 mResponseCallback = responseCallback;
@@ -259,9 +477,8 @@ namespace GooglePlayGames.Android
 
             public void onConnectionInitiated(string endpointId, AndroidJavaObject connectionInfo)
             {
-                using (var payloadCallback = new AndroidJavaObject("com.google.games.bridge.PayloadCallbackProxy",
-                    new PayloadCallback(mListener)))
-                using (mClient.Call<AndroidJavaObject>("acceptConnection", endpointId, payloadCallback))
+                using (var payloadCallback = mClient.CreatePayloadCallback(mListener))
+                using (mClient.mSessions.Call<AndroidJavaObject>("acceptConnection", endpointId, payloadCallback))
                     ;
             }
 
@@ -290,6 +507,7 @@ namespace GooglePlayGames.Android
 
             public void onDisconnected(string endpointId)
             {
+                mClient.mBroadcaster.Call("removeEndpoint", endpointId);
                 mListener.OnRemoteEndpointDisconnected(endpointId);
             }
         }
@@ -331,7 +549,7 @@ namespace GooglePlayGames.Android
             {
                 return new EndpointDetails(
                     endpointId,
-                    endpointInfo.Call<string>("getEndpointName"),
+                    GetDisplayName(endpointInfo.Call<string>("getEndpointName")),
                     endpointInfo.Call<string>("getServiceId")
                 );
             }
@@ -393,12 +611,15 @@ namespace GooglePlayGames.Android
 
         public void DisconnectFromEndpoint(string remoteEndpointId)
         {
-            mClient.Call("disconnectFromEndpoint", remoteEndpointId);
+            // Ends the session, if any, and disconnects its current connection.
+            mSessions.Call("disconnect", remoteEndpointId);
         }
 
         public void StopAllConnections()
         {
+            mSessions.Call("disconnectAll");
             mClient.Call("stopAllEndpoints");
+            mBroadcaster.Call("removeAllEndpoints");
             mAdvertisingMessageListener = null;
         }
 
@@ -26,9 +26,9 @@ namespace GooglePlayGames.Android
         public AndroidSavedGameClient(AndroidClient androidClient)
         {
             mAndroidClient = androidClient;
-            using (var gamesClass = new AndroidJavaClass("com.google.android.gms.games.PlayGames"))
+            using (var clientRegistry = new AndroidJavaClass("com.google.games.bridge.ClientRegistry"))
             {
-                mSnapshotsClient = gamesClass.CallStatic<AndroidJavaObject>("getSnapshotsClient",
+                mSnapshotsClient = clientRegistry.CallStatic<AndroidJavaObject>("getSnapshotsClient",
                     AndroidHelperFragment.GetActivity());
             }
         }
@@ -0,0 +1,617 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.content.Intent;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
+import com.google.android.gms.common.api.Status;
+import com.google.android.gms.games.AchievementsClient;
+import com.google.android.gms.games.AnnotatedData;
+import com.google.android.gms.games.EventsClient;
+import com.google.android.gms.games.GameStatsClient;
+import com.google.android.gms.games.LeaderboardsClient;
+import com.google.android.gms.games.PlayGames;
+import com.google.android.gms.games.PlayerStatsClient;
+import com.google.android.gms.games.PlayersClient;
+import com.google.android.gms.games.SnapshotsClient;
+import com.google.android.gms.games.achievement.Achievement;
+import com.google.android.gms.games.achievement.AchievementBuffer;
+import com.google.android.gms.games.leaderboard.ScoreSubmissionData;
+import com.google.android.gms.games.snapshot.Snapshot;
+import com.google.android.gms.games.snapshot.SnapshotContents;
+import com.google.android.gms.games.snapshot.SnapshotMetadata;
+import com.google.android.gms.games.snapshot.SnapshotMetadataChange;
+import com.google.android.gms.nearby.Nearby;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory Play Games backend for driving the bridge from a plain JVM.
+ *
+ * <p>Install it with {@link ClientRegistry#setClientFactory} and every client
+ * the registry hands out talks to this object instead of Play services.
+ * Achievements, leaderboards, events and snapshots are kept in memory; the
+ * other clients are the stand-ins from {@link PlayGames}. Every call
+ * completes on a background thread after a configurable latency plus
+ * jitter, and fails with {@link CommonStatusCodes#NETWORK_ERROR} at the
+ * configured rate. Calls the real API makes fire-and-forget are delayed the
+ * same way; {@link #awaitIdle(long)} waits for them to land.
+ */
+public final class FakePlayGamesBackend implements ClientRegistry.ClientFactory {
+
+    // GamesClientStatusCodes
+    static final int ACHIEVEMENT_UNKNOWN = 3001;
+    static final int SNAPSHOT_NOT_FOUND = 4000;
+
+    static final String PLAYER_ID = "fake-player";
+
+    private static final class AchievementState implements Achievement {
+        final String id;
+        final String name;
+        final int totalSteps;
+        int state = STATE_REVEALED;
+        int currentSteps;
+        long lastUpdated;
+
+        AchievementState(String id, String name, int totalSteps) {
+            this.id = id;
+            this.name = name;
+            this.totalSteps = totalSteps;
+        }
+
+        AchievementState copy() {
+            AchievementState copy = new AchievementState(id, name, totalSteps);
+            copy.state = state;
+            copy.currentSteps = currentSteps;
+            copy.lastUpdated = lastUpdated;
+            return copy;
+        }
+
+        @Override
+        public String getAchievementId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return name + " description";
+        }
+
+        @Override
+        public int getType() {
+            return totalSteps > 0 ? TYPE_INCREMENTAL : TYPE_STANDARD;
+        }
+
+        @Override
+        public int getState() {
+            return state;
+        }
+
+        @Override
+        public int getCurrentSteps() {
+            return currentSteps;
+        }
+
+        @Override
+        public int getTotalSteps() {
+            return totalSteps;
+        }
+
+        @Override
+        public long getLastUpdatedTimestamp() {
+            return lastUpdated;
+        }
+
+        @Override
+        public long getXpValue() {
+            return 100;
+        }
+
+        @Override
+        public String getRevealedImageUrl() {
+            return null;
+        }
+
+        @Override
+        public String getUnlockedImageUrl() {
+            return null;
+        }
+    }
+
+    private static final class StoredSnapshot implements SnapshotMetadata {
+        final String name;
+        final byte[] data;
+        final String description;
+        final long playedTime;
+        final long lastModified;
+
+        StoredSnapshot(String name, byte[] data, String description, long playedTime, long lastModified) {
+            this.name = name;
+            this.data = data;
+            this.description = description;
+            this.playedTime = playedTime;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getUniqueName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public long getLastModifiedTimestamp() {
+            return lastModified;
+        }
+
+        @Override
+        public long getPlayedTime() {
+            return playedTime;
+        }
+    }
+
+    private static final class OpenSnapshot implements Snapshot, SnapshotContents {
+        final StoredSnapshot metadata;
+        byte[] contents;
+
+        OpenSnapshot(StoredSnapshot metadata) {
+            this.metadata = metadata;
+            this.contents = metadata.data.clone();
+        }
+
+        @Override
+        public SnapshotMetadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public SnapshotContents getSnapshotContents() {
+            return this;
+        }
+
+        @Override
+        public byte[] readFully() {
+            return contents.clone();
+        }
+
+        @Override
+        public boolean writeBytes(byte[] content) {
+            contents = content.clone();
+            return true;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final long latencyMicros;
+    private final long jitterMicros;
+    private final double failureRate;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Map<String, AchievementState> achievements = new TreeMap<>();
+    private final Map<String, Long> bestScores = new TreeMap<>();
+    private final Map<String, Long> events = new TreeMap<>();
+    private final Map<String, StoredSnapshot> snapshots = new TreeMap<>();
+    private volatile ConnectionsClient connectionsClient;
+
+    private int pendingCalls;
+    private long calls;
+    private long failedCalls;
+
+    /**
+     * @param latencyMicros fixed latency of every call
+     * @param jitterMicros upper bound of the random latency added to it
+     * @param failureRate share of calls, 0 to 1, that fail with a network error
+     * @param threads threads completing the calls, i.e. delivering results
+     */
+    public FakePlayGamesBackend(long latencyMicros, long jitterMicros, double failureRate, int threads) {
+        this.latencyMicros = latencyMicros;
+        this.jitterMicros = jitterMicros;
+        this.failureRate = failureRate;
+        this.executor = new ScheduledThreadPoolExecutor(
+                threads, new BridgeStartup.BackgroundThreadFactory("fake-play-games"));
+    }
+
+    /** Adds an achievement; {@code totalSteps} of 0 makes it a standard one. */
+    public void defineAchievement(String id, String name, int totalSteps) {
+        synchronized (lock) {
+            achievements.put(id, new AchievementState(id, name, totalSteps));
+        }
+    }
+
+    /** Routes {@link ClientRegistry#getConnectionsClient} to e.g. a {@link SimulatedNearbyLink}. */
+    public void setConnectionsClient(ConnectionsClient client) {
+        this.connectionsClient = client;
+    }
+
+    public Achievement getAchievement(String id) {
+        synchronized (lock) {
+            AchievementState achievement = achievements.get(id);
+            return achievement == null ? null : achievement.copy();
+        }
+    }
+
+    public Long getBestScore(String leaderboardId) {
+        synchronized (lock) {
+            return bestScores.get(leaderboardId);
+        }
+    }
+
+    public long getEventValue(String eventId) {
+        synchronized (lock) {
+            Long value = events.get(eventId);
+            return value == null ? 0 : value;
+        }
+    }
+
+    public byte[] getSnapshotData(String name) {
+        synchronized (lock) {
+            StoredSnapshot snapshot = snapshots.get(name);
+            return snapshot == null ? null : snapshot.data.clone();
+        }
+    }
+
+    public long getCallCount() {
+        synchronized (lock) {
+            return calls;
+        }
+    }
+
+    public long getFailedCallCount() {
+        synchronized (lock) {
+            return failedCalls;
+        }
+    }
+
+    /** Waits until every call made so far has completed. Returns false on timeout. */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (pendingCalls > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public AchievementsClient getAchievementsClient(Activity activity) {
+        return new AchievementsClient() {
+            @Override
+            public Task<Intent> getAchievementsIntent() {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<AnnotatedData<AchievementBuffer>> load(boolean forceReload) {
+                return call(new Callable<AnnotatedData<AchievementBuffer>>() {
+                    @Override
+                    public AnnotatedData<AchievementBuffer> call() {
+                        List<Achievement> loaded = new ArrayList<>();
+                        for (AchievementState achievement : achievements.values()) {
+                            loaded.add(achievement.copy());
+                        }
+                        return new AnnotatedData<>(new AchievementBuffer(loaded), false);
+                    }
+                });
+            }
+
+            @Override
+            public void unlock(String id) {
+                unlockImmediate(id);
+            }
+
+            @Override
+            public Task<Void> unlockImmediate(final String id) {
+                return call(new Callable<Void>() {
+                    @Override
+                    public Void call() throws ApiException {
+                        AchievementState achievement = findAchievement(id);
+                        achievement.state = Achievement.STATE_UNLOCKED;
+                        achievement.currentSteps = achievement.totalSteps;
+                        achievement.lastUpdated = System.currentTimeMillis();
+                        return null;
+                    }
+                });
+            }
+
+            @Override
+            public void reveal(final String id) {
+                call(new Callable<Void>() {
+                    @Override
+                    public Void call() throws ApiException {
+                        AchievementState achievement = findAchievement(id);
+                        if (achievement.state == Achievement.STATE_HIDDEN) {
+                            achievement.state = Achievement.STATE_REVEALED;
+                            achievement.lastUpdated = System.currentTimeMillis();
+                        }
+                        return null;
+                    }
+                });
+            }
+
+            @Override
+            public void increment(String id, int numSteps) {
+                incrementImmediate(id, numSteps);
+            }
+
+            @Override
+            public Task<Boolean> incrementImmediate(final String id, final int numSteps) {
+                return call(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws ApiException {
+                        AchievementState achievement = findAchievement(id);
+                        if (achievement.totalSteps == 0 || achievement.state == Achievement.STATE_UNLOCKED) {
+                            return false;
+                        }
+                        achievement.currentSteps = Math.min(achievement.totalSteps,
+                                achievement.currentSteps + numSteps);
+                        achievement.lastUpdated = System.currentTimeMillis();
+                        if (achievement.currentSteps < achievement.totalSteps) {
+                            return false;
+                        }
+                        achievement.state = Achievement.STATE_UNLOCKED;
+                        return true;
+                    }
+                });
+            }
+
+            @Override
+            public void setSteps(final String id, final int numSteps) {
+                call(new Callable<Void>() {
+                    @Override
+                    public Void call() throws ApiException {
+                        AchievementState achievement = findAchievement(id);
+                        if (achievement.totalSteps == 0 || achievement.state == Achievement.STATE_UNLOCKED
+                                || numSteps <= achievement.currentSteps) {
+                            return null;
+                        }
+                        achievement.currentSteps = Math.min(achievement.totalSteps, numSteps);
+                        achievement.lastUpdated = System.currentTimeMillis();
+                        if (achievement.currentSteps == achievement.totalSteps) {
+                            achievement.state = Achievement.STATE_UNLOCKED;
+                        }
+                        return null;
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public LeaderboardsClient getLeaderboardsClient(Activity activity) {
+        return new LeaderboardsClient() {
+            @Override
+            public Task<Intent> getAllLeaderboardsIntent() {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<Intent> getLeaderboardIntent(String leaderboardId, int timeSpan) {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public void submitScore(String leaderboardId, long score) {
+                submitScoreImmediate(leaderboardId, score);
+            }
+
+            @Override
+            public Task<ScoreSubmissionData> submitScoreImmediate(final String leaderboardId, final long score) {
+                return call(new Callable<ScoreSubmissionData>() {
+                    @Override
+                    public ScoreSubmissionData call() {
+                        Long best = bestScores.get(leaderboardId);
+                        boolean newBest = best == null || score > best;
+                        if (newBest) {
+                            bestScores.put(leaderboardId, score);
+                        }
+                        return new ScoreSubmissionData(leaderboardId, PLAYER_ID, newBest ? score : best, newBest);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public SnapshotsClient getSnapshotsClient(Activity activity) {
+        return new SnapshotsClient() {
+            @Override
+            public Task<Intent> getSelectSnapshotIntent(String title, boolean allowAddButton,
+                    boolean allowDelete, int maxSnapshots) {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<DataOrConflict<Snapshot>> open(final String fileName, final boolean createIfNotFound,
+                    int conflictPolicy) {
+                return call(new Callable<DataOrConflict<Snapshot>>() {
+                    @Override
+                    public DataOrConflict<Snapshot> call() throws ApiException {
+                        StoredSnapshot stored = snapshots.get(fileName);
+                        if (stored == null) {
+                            if (!createIfNotFound) {
+                                throw new ApiException(new Status(SNAPSHOT_NOT_FOUND));
+                            }
+                            stored = new StoredSnapshot(fileName, new byte[0], null, 0, System.currentTimeMillis());
+                            snapshots.put(fileName, stored);
+                        }
+                        return new DataOrConflict<Snapshot>(new OpenSnapshot(stored));
+                    }
+                });
+            }
+
+            @Override
+            public Task<SnapshotMetadata> commitAndClose(final Snapshot snapshot,
+                    final SnapshotMetadataChange metadataChange) {
+                return call(new Callable<SnapshotMetadata>() {
+                    @Override
+                    public SnapshotMetadata call() {
+                        OpenSnapshot open = (OpenSnapshot) snapshot;
+                        StoredSnapshot previous = open.metadata;
+                        String description = metadataChange.getDescription() != null
+                                ? metadataChange.getDescription()
+                                : previous.description;
+                        long playedTime = metadataChange.getPlayedTimeMillis() != null
+                                ? metadataChange.getPlayedTimeMillis()
+                                : previous.playedTime;
+                        StoredSnapshot stored = new StoredSnapshot(previous.name, open.contents, description,
+                                playedTime, System.currentTimeMillis());
+                        snapshots.put(stored.name, stored);
+                        return stored;
+                    }
+                });
+            }
+
+            @Override
+            public Task<String> delete(final SnapshotMetadata metadata) {
+                return call(new Callable<String>() {
+                    @Override
+                    public String call() throws ApiException {
+                        if (snapshots.remove(metadata.getUniqueName()) == null) {
+                            throw new ApiException(new Status(SNAPSHOT_NOT_FOUND));
+                        }
+                        return metadata.getUniqueName();
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public EventsClient getEventsClient(Activity activity) {
+        return new EventsClient() {
+            @Override
+            public void increment(final String eventId, final int incrementAmount) {
+                call(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        Long value = events.get(eventId);
+                        events.put(eventId, (value == null ? 0 : value) + incrementAmount);
+                        return null;
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public PlayersClient getPlayersClient(Activity activity) {
+        return PlayGames.getPlayersClient(activity);
+    }
+
+    @Override
+    public PlayerStatsClient getPlayerStatsClient(Activity activity) {
+        return PlayGames.getPlayerStatsClient(activity);
+    }
+
+    @Override
+    public GameStatsClient getGameStatsClient(Activity activity) {
+        return PlayGames.getGameStatsClient(activity);
+    }
+
+    @Override
+    public ConnectionsClient getConnectionsClient(Activity activity) {
+        ConnectionsClient client = connectionsClient;
+        return client != null ? client : Nearby.getConnectionsClient(activity);
+    }
+
+    private AchievementState findAchievement(String id) throws ApiException {
+        AchievementState achievement = achievements.get(id);
+        if (achievement == null) {
+            throw new ApiException(new Status(ACHIEVEMENT_UNKNOWN));
+        }
+        return achievement;
+    }
+
+    /**
+     * Runs {@code operation} under the backend lock after the simulated
+     * latency and completes the returned task with its result.
+     */
+    private <T> Task<T> call(final Callable<T> operation) {
+        final TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMicros + (jitterMicros > 0 ? random.nextLong(jitterMicros + 1) : 0);
+        final boolean fail = failureRate > 0 && random.nextDouble() < failureRate;
+        synchronized (lock) {
+            pendingCalls++;
+            calls++;
+        }
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                T result = null;
+                Exception failure = null;
+                synchronized (lock) {
+                    if (fail) {
+                        failure = new ApiException(new Status(CommonStatusCodes.NETWORK_ERROR));
+                    } else {
+                        try {
+                            result = operation.call();
+                        } catch (Exception e) {
+                            failure = e;
+                        }
+                    }
+                    if (failure != null) {
+                        failedCalls++;
+                    }
+                }
+                try {
+                    if (failure == null) {
+                        source.setResult(result);
+                    } else {
+                        source.setException(failure);
+                    }
+                } finally {
+                    synchronized (lock) {
+                        pendingCalls--;
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }, delay, TimeUnit.MICROSECONDS);
+        return source.getTask();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Collects operation latencies and reports throughput and percentiles. */
+final class LatencyRecorder {
+    private final Object lock = new Object();
+    private long[] samples = new long[1024];
+    private int count;
+    private long failures;
+    private long startNanos;
+    private long endNanos;
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    void record(long latencyNanos) {
+        synchronized (lock) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = latencyNanos;
+        }
+    }
+
+    void recordFailure() {
+        synchronized (lock) {
+            failures++;
+        }
+    }
+
+    int getCount() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    long getFailures() {
+        synchronized (lock) {
+            return failures;
+        }
+    }
+
+    String report(String name) {
+        long[] sorted;
+        long failed;
+        synchronized (lock) {
+            sorted = Arrays.copyOf(samples, count);
+            failed = failures;
+        }
+        Arrays.sort(sorted);
+        double seconds = (endNanos - startNanos) / 1e9;
+        return String.format(Locale.US,
+                "%-14s %8d ok %6d failed %10.1f ops/s   p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  max %8.2f ms",
+                name, sorted.length, failed, (sorted.length + failed) / seconds,
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
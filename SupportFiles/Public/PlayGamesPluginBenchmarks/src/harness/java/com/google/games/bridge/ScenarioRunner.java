@@ -0,0 +1,668 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import com.google.android.gms.games.AchievementsClient;
+import com.google.android.gms.games.EventsClient;
+import com.google.android.gms.games.LeaderboardsClient;
+import com.google.android.gms.games.SnapshotsClient;
+import com.google.android.gms.games.achievement.Achievement;
+import com.google.android.gms.games.snapshot.Snapshot;
+import com.google.android.gms.games.snapshot.SnapshotMetadata;
+import com.google.android.gms.games.snapshot.SnapshotMetadataChange;
+import com.google.android.gms.nearby.connection.ConnectionInfo;
+import com.google.android.gms.nearby.connection.ConnectionResolution;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the bridge against {@link FakePlayGamesBackend} and
+ * {@link SimulatedNearbyLink} and reports throughput and tail latency.
+ *
+ * <pre>
+ *   gradle runScenarios
+ *   gradle runScenarios -PscenarioArgs="--scenario=nearby --messages=20000 --dropoutEveryMillis=2000"
+ * </pre>
+ *
+ * <p>Options are {@code --name=value}; see {@link #DEFAULTS} for the names
+ * and their defaults. {@code --scenario} is one of achievements,
+ * achievementMirror, leaderboards, events, snapshots, nearby or all.
+ */
+public final class ScenarioRunner {
+
+    private static final String[] DEFAULTS = {
+        "scenario", "all",
+        // Service scenarios.
+        "operations", "20000",
+        "concurrency", "64",
+        "latencyMicros", "2000",
+        "jitterMicros", "8000",
+        "failureRate", "0.001",
+        "threads", "4",
+        "snapshotBytes", "16384",
+        // Nearby scenario.
+        "messages", "10000",
+        "messagesPerSecond", "500",
+        "messageBytes", "256",
+        "linkLatencyMicros", "5000",
+        "lossRate", "0",
+        "bytesPerSecond", "1000000",
+        "dropoutEveryMillis", "2000",
+        "outageMillis", "300",
+        "sessions", "true",
+        "replayMessages", "4096",
+        "compression", "false",
+        "drainMillis", "10000",
+    };
+
+    private static final int ACHIEVEMENTS = 50;
+    private static final int INCREMENTAL_STEPS = 1000;
+    private static final int LEADERBOARDS = 10;
+    private static final int EVENTS = 20;
+    private static final int SNAPSHOTS = 32;
+    private static final long RECONNECT_DELAY_MILLIS = 250;
+
+    /** Starts operation {@code index} of a scenario. */
+    private interface Operation {
+        Task<?> start(int index);
+    }
+
+    private final Map<String, String> options;
+
+    private ScenarioRunner(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < DEFAULTS.length; i += 2) {
+            options.put(DEFAULTS[i], DEFAULTS[i + 1]);
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+            if (name == null || !options.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + arg + "; known options: "
+                        + new TreeSet<>(options.keySet()));
+            }
+            options.put(name, arg.substring(separator + 1));
+        }
+
+        ScenarioRunner runner = new ScenarioRunner(options);
+        String scenario = options.get("scenario");
+        List<String> scenarios = scenario.equals("all")
+                ? Arrays.asList("achievements", "achievementMirror", "leaderboards", "events", "snapshots", "nearby")
+                : Collections.singletonList(scenario);
+        for (String name : scenarios) {
+            runner.run(name);
+        }
+    }
+
+    private void run(String scenario) throws Exception {
+        if (scenario.equals("nearby")) {
+            runNearby();
+            return;
+        }
+
+        FakePlayGamesBackend backend = new FakePlayGamesBackend(getLong("latencyMicros"),
+                getLong("jitterMicros"), getDouble("failureRate"), getInt("threads"));
+        ClientRegistry.setClientFactory(backend);
+        Activity activity = new Activity();
+        try {
+            switch (scenario) {
+                case "achievements":
+                    runAchievements(backend, ClientRegistry.getAchievementsClient(activity));
+                    break;
+                case "achievementMirror":
+                    runAchievementMirror(backend, ClientRegistry.getAchievementsClient(activity));
+                    break;
+                case "leaderboards":
+                    runLeaderboards(backend, ClientRegistry.getLeaderboardsClient(activity));
+                    break;
+                case "events":
+                    runEvents(backend, ClientRegistry.getEventsClient(activity));
+                    break;
+                case "snapshots":
+                    runSnapshots(backend, ClientRegistry.getSnapshotsClient(activity));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scenario " + scenario);
+            }
+        } finally {
+            ClientRegistry.setClientFactory(null);
+            backend.shutdown();
+        }
+    }
+
+    private void runAchievements(FakePlayGamesBackend backend, final AchievementsClient client)
+            throws InterruptedException {
+        for (int i = 0; i < ACHIEVEMENTS; i++) {
+            backend.defineAchievement("achievement-" + i, "Achievement " + i, i % 2 == 0 ? INCREMENTAL_STEPS : 0);
+        }
+        LatencyRecorder recorder = drive(new Operation() {
+            @Override
+            public Task<?> start(int index) {
+                int achievement = index % ACHIEVEMENTS;
+                if (index % 100 == 99) {
+                    return client.load(/* forceReload= */ false);
+                }
+                String id = "achievement-" + achievement;
+                return achievement % 2 == 0 ? client.incrementImmediate(id, 1) : client.unlockImmediate(id);
+            }
+        });
+        System.out.println(recorder.report("achievements"));
+    }
+
+    /**
+     * Starts an {@link AchievementMirror} the way a first session would,
+     * changes achievements through it, and starts it again from its file the
+     * way the next session would, then once more from a damaged file. Reports
+     * how long each start took until achievements could be read, and whether
+     * the mirror agrees with the backend once reconciled. Changes the backend
+     * failed to apply leave their entries pending; they are counted separately.
+     */
+    private void runAchievementMirror(FakePlayGamesBackend backend, AchievementsClient client)
+            throws Exception {
+        for (int i = 0; i < ACHIEVEMENTS; i++) {
+            backend.defineAchievement("achievement-" + i, "Achievement " + i, i % 2 == 0 ? INCREMENTAL_STEPS : 0);
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                new BridgeStartup.BackgroundThreadFactory("scenario-mirror"));
+        File file = File.createTempFile("gpg_achievements", ".bin");
+        file.delete();
+        try {
+            AchievementMirror first = new AchievementMirror(client, file, FakePlayGamesBackend.PLAYER_ID, executor);
+            double firstStartMillis = startAndAwaitData(first);
+
+            int operations = getInt("operations");
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int achievement = i % ACHIEVEMENTS;
+                if (achievement % 2 == 0) {
+                    first.increment("achievement-" + achievement, 1);
+                } else {
+                    first.unlock("achievement-" + achievement);
+                }
+            }
+            double opsPerSecond = operations / ((System.nanoTime() - start) / 1e9);
+            boolean idle = backend.awaitIdle(TimeUnit.MINUTES.toMillis(1));
+            drain(executor);
+            AchievementMirror.Entry[] before = first.getAchievements();
+
+            AchievementMirror second = new AchievementMirror(client, file, FakePlayGamesBackend.PLAYER_ID, executor);
+            double restartMillis = startAndAwaitData(second);
+            boolean restored = sameProgress(before, second.getAchievements());
+            awaitReconcile(second);
+            int pending = second.getStats().pendingEntries;
+            boolean consistent = agreesWithBackend(backend, second.getAchievements());
+            drain(executor);
+            long bytesOnDisk = file.length();
+
+            // Flip a byte in the middle of the saved file.
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            bytes[bytes.length / 2] ^= 0x5a;
+            Files.write(file.toPath(), bytes);
+            AchievementMirror third = new AchievementMirror(client, file, FakePlayGamesBackend.PLAYER_ID, executor);
+            third.start();
+            // The file is read on the executor; the reconcile may fill the mirror right after.
+            drain(executor);
+            AchievementMirror.Stats thirdStats = third.getStats();
+            boolean rejected = thirdStats.corruptFiles == 1 && !thirdStats.loadedFromDisk;
+            awaitReconcile(third);
+
+            System.out.println(String.format(Locale.US,
+                    "%-14s first start %.2f ms, restart %.2f ms from %d bytes, %.1f local ops/s,"
+                            + " restored %s, consistent %s, %d pending after %d failed calls,"
+                            + " damaged file rejected %s%s",
+                    "achievementMirror", firstStartMillis, restartMillis, bytesOnDisk, opsPerSecond,
+                    restored ? "yes" : "NO", consistent ? "yes" : "NO", pending, backend.getFailedCallCount(),
+                    rejected ? "yes" : "NO", idle ? "" : "   (timed out waiting for the backend)"));
+        } finally {
+            executor.shutdownNow();
+            file.delete();
+        }
+    }
+
+    /** Starts {@code mirror} and returns the milliseconds until it had achievements to serve. */
+    private static double startAndAwaitData(AchievementMirror mirror) throws InterruptedException {
+        long start = System.nanoTime();
+        mirror.start();
+        while (!mirror.hasData()) {
+            Thread.sleep(1);
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static void awaitReconcile(AchievementMirror mirror) throws InterruptedException {
+        while (mirror.getStats().reconciles + mirror.getStats().reconcileFailures == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void drain(ExecutorService executor) throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
+    private static boolean sameProgress(AchievementMirror.Entry[] expected, AchievementMirror.Entry[] actual) {
+        if (expected.length != actual.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (!expected[i].id.equals(actual[i].id) || expected[i].state != actual[i].state
+                    || expected[i].currentSteps != actual[i].currentSteps) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Non-pending entries must match the backend. */
+    private static boolean agreesWithBackend(FakePlayGamesBackend backend, AchievementMirror.Entry[] entries) {
+        for (AchievementMirror.Entry entry : entries) {
+            Achievement achievement = backend.getAchievement(entry.id);
+            if (achievement == null) {
+                return false;
+            }
+            if (entry.pending) {
+                // Kept ahead of the backend, never behind it.
+                if (entry.state > achievement.getState() || entry.currentSteps < achievement.getCurrentSteps()) {
+                    return false;
+                }
+                continue;
+            }
+            if (achievement.getState() != entry.state
+                    || (entry.totalSteps > 0 && achievement.getCurrentSteps() != entry.currentSteps)) {
+                return false;
+            }
+        }
+        return entries.length == ACHIEVEMENTS;
+    }
+
+    private void runLeaderboards(FakePlayGamesBackend backend, final LeaderboardsClient client)
+            throws InterruptedException {
+        LatencyRecorder recorder = drive(new Operation() {
+            @Override
+            public Task<?> start(int index) {
+                return client.submitScoreImmediate("leaderboard-" + index % LEADERBOARDS,
+                        ThreadLocalRandom.current().nextLong(1_000_000));
+            }
+        });
+        System.out.println(recorder.report("leaderboards"));
+    }
+
+    private void runEvents(FakePlayGamesBackend backend, EventsClient client) throws InterruptedException {
+        // Increments are fire-and-forget, so only their throughput is measured.
+        int operations = getInt("operations");
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            client.increment("event-" + i % EVENTS, 1);
+        }
+        boolean idle = backend.awaitIdle(TimeUnit.MINUTES.toMillis(1));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            total += backend.getEventValue("event-" + i);
+        }
+        System.out.println(String.format(Locale.US, "%-14s %8d applied %6d failed %10.1f ops/s%s",
+                "events", total, backend.getFailedCallCount(), operations / seconds,
+                idle ? "" : "   (timed out waiting for the backend)"));
+    }
+
+    private void runSnapshots(FakePlayGamesBackend backend, final SnapshotsClient client)
+            throws InterruptedException {
+        final byte[] data = new byte[getInt("snapshotBytes")];
+        LatencyRecorder recorder = drive(new Operation() {
+            @Override
+            public Task<?> start(int index) {
+                return openWriteAndCommit(client, "save-" + index % SNAPSHOTS, data, index);
+            }
+        });
+        System.out.println(recorder.report("snapshots"));
+    }
+
+    /** Opens a snapshot, replaces its contents and commits it, as a save does. */
+    private static Task<SnapshotMetadata> openWriteAndCommit(final SnapshotsClient client, String name,
+            final byte[] data, final long playedTime) {
+        final TaskCompletionSource<SnapshotMetadata> result = new TaskCompletionSource<>();
+        final OnFailureListener fail = new OnFailureListener() {
+            @Override
+            public void onFailure(Exception e) {
+                result.setException(e);
+            }
+        };
+        client.open(name, /* createIfNotFound= */ true, SnapshotsClient.RESOLUTION_POLICY_MOST_RECENTLY_MODIFIED)
+            .addOnSuccessListener(
+                new OnSuccessListener<SnapshotsClient.DataOrConflict<Snapshot>>() {
+                    @Override
+                    public void onSuccess(SnapshotsClient.DataOrConflict<Snapshot> opened) {
+                        Snapshot snapshot = opened.getData();
+                        snapshot.getSnapshotContents().writeBytes(data);
+                        SnapshotMetadataChange change = new SnapshotMetadataChange.Builder()
+                                .setPlayedTimeMillis(playedTime)
+                                .build();
+                        client.commitAndClose(snapshot, change)
+                            .addOnSuccessListener(
+                                new OnSuccessListener<SnapshotMetadata>() {
+                                    @Override
+                                    public void onSuccess(SnapshotMetadata metadata) {
+                                        result.setResult(metadata);
+                                    }
+                                })
+                            .addOnFailureListener(fail);
+                    }
+                })
+            .addOnFailureListener(fail);
+        return result.getTask();
+    }
+
+    /** Runs the operations with at most {@code concurrency} in flight. */
+    private LatencyRecorder drive(Operation operation) throws InterruptedException {
+        int operations = getInt("operations");
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final Semaphore permits = new Semaphore(getInt("concurrency"));
+        final CountDownLatch done = new CountDownLatch(operations);
+        recorder.start();
+        for (int i = 0; i < operations; i++) {
+            permits.acquire();
+            final long start = System.nanoTime();
+            operation.start(i)
+                .addOnSuccessListener(
+                    new OnSuccessListener<Object>() {
+                        @Override
+                        public void onSuccess(Object result) {
+                            recorder.record(System.nanoTime() - start);
+                            permits.release();
+                            done.countDown();
+                        }
+                    })
+                .addOnFailureListener(
+                    new OnFailureListener() {
+                        @Override
+                        public void onFailure(Exception e) {
+                            recorder.recordFailure();
+                            permits.release();
+                            done.countDown();
+                        }
+                    });
+        }
+        done.await();
+        recorder.stop();
+        return recorder;
+    }
+
+    /**
+     * Streams reliable messages from the discoverer to the advertiser through
+     * the bridge's Nearby stack while the link drops out periodically, and
+     * checks which messages arrived.
+     */
+    private void runNearby() throws Exception {
+        final int messages = getInt("messages");
+        final SimulatedNearbyLink link = new SimulatedNearbyLink(getLong("linkLatencyMicros"),
+                getDouble("lossRate"), getLong("bytesPerSecond"), 42);
+        final NearbyStack advertiser = new NearbyStack(link.getAdvertiser());
+        final NearbyStack discoverer = new NearbyStack(link.getDiscoverer());
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                1, new BridgeStartup.BackgroundThreadFactory("scenario"));
+
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final BitSet received = new BitSet(messages);
+        final long[] duplicates = new long[1];
+        final CountDownLatch connected = new CountDownLatch(1);
+        final boolean[] isConnected = new boolean[1];
+
+        advertiser.setPayloadCallback(new PayloadCallbackProxy.Callback() {
+            @Override
+            public void onPayloadReceived(String endpointId, Payload payload) {
+                byte[] bytes = payload.asBytes();
+                long sentAt = readLong(bytes, 0);
+                int index = (int) readLong(bytes, 8);
+                synchronized (received) {
+                    if (received.get(index)) {
+                        duplicates[0]++;
+                        return;
+                    }
+                    received.set(index);
+                }
+                recorder.record(System.nanoTime() - sentAt);
+            }
+        });
+        advertiser.setLifecycleCallback(
+                new ConnectionLifecycleCallbackProxy.Callback() {
+                    @Override
+                    public void onConnectionInitiated(String endpointId, ConnectionInfo connectionInfo) {
+                        advertiser.sessions.acceptConnection(endpointId, advertiser.payloadCallback);
+                    }
+
+                    @Override
+                    public void onConnectionResult(String endpointId, ConnectionResolution resolution) {
+                    }
+
+                    @Override
+                    public void onDisconnected(String endpointId) {
+                    }
+                });
+        discoverer.setPayloadCallback(new PayloadCallbackProxy.Callback() {
+            @Override
+            public void onPayloadReceived(String endpointId, Payload payload) {
+            }
+        });
+        final Runnable[] connect = new Runnable[1];
+        discoverer.setLifecycleCallback(
+                new ConnectionLifecycleCallbackProxy.Callback() {
+                    @Override
+                    public void onConnectionInitiated(String endpointId, ConnectionInfo connectionInfo) {
+                        discoverer.sessions.acceptConnection(endpointId, discoverer.payloadCallback);
+                    }
+
+                    @Override
+                    public void onConnectionResult(String endpointId, ConnectionResolution resolution) {
+                        if (resolution.getStatus().isSuccess()) {
+                            synchronized (isConnected) {
+                                isConnected[0] = true;
+                            }
+                            connected.countDown();
+                        } else {
+                            scheduler.schedule(connect[0], RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                        }
+                    }
+
+                    @Override
+                    public void onDisconnected(String endpointId) {
+                        // What a game does once the disconnect is reported.
+                        synchronized (isConnected) {
+                            isConnected[0] = false;
+                        }
+                        scheduler.schedule(connect[0], RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                });
+        connect[0] = new Runnable() {
+            @Override
+            public void run() {
+                discoverer.sessions.requestConnection(discoverer.compression.getAdvertisedName("discoverer"),
+                        SimulatedNearbyLink.ADVERTISER_ENDPOINT_ID,
+                        discoverer.lifecycleCallback)
+                    .addOnFailureListener(
+                        new OnFailureListener() {
+                            @Override
+                            public void onFailure(Exception e) {
+                                scheduler.schedule(connect[0], RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                            }
+                        });
+            }
+        };
+
+        String advertisedName =
+                advertiser.sessions.getAdvertisedName(advertiser.compression.getAdvertisedName("advertiser"));
+        link.advertise(advertisedName, advertiser.lifecycleCallback);
+        discoverer.sessions.onEndpointFound(SimulatedNearbyLink.ADVERTISER_ENDPOINT_ID, advertisedName);
+        connect[0].run();
+        if (!connected.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The simulated link did not connect");
+        }
+
+        long dropoutEveryMillis = getLong("dropoutEveryMillis");
+        final long outageMillis = getLong("outageMillis");
+        if (dropoutEveryMillis > 0) {
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    link.drop(outageMillis);
+                }
+            }, dropoutEveryMillis, dropoutEveryMillis, TimeUnit.MILLISECONDS);
+        }
+
+        List<String> recipients = Collections.singletonList(SimulatedNearbyLink.ADVERTISER_ENDPOINT_ID);
+        int messageBytes = Math.max(16, getInt("messageBytes"));
+        long intervalNanos = 1_000_000_000L / Math.max(1, getLong("messagesPerSecond"));
+        long sent = 0;
+        recorder.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            byte[] message = new byte[messageBytes];
+            writeLong(message, 0, System.nanoTime());
+            writeLong(message, 8, i);
+            sent += discoverer.sessions.send(recipients, message, /* reliable= */ true) > 0 ? 1 : 0;
+        }
+
+        long drainUntil = System.currentTimeMillis() + getLong("drainMillis");
+        scheduler.shutdownNow();
+        while (System.currentTimeMillis() < drainUntil) {
+            synchronized (received) {
+                if (received.cardinality() == messages) {
+                    break;
+                }
+            }
+            Thread.sleep(10);
+        }
+        recorder.stop();
+
+        int delivered;
+        synchronized (received) {
+            delivered = received.cardinality();
+        }
+        NearbySessionManager.SessionStats sessionStats =
+                discoverer.sessions.getStats(SimulatedNearbyLink.ADVERTISER_ENDPOINT_ID);
+        System.out.println(recorder.report("nearby"));
+        System.out.println(String.format(Locale.US,
+                "%-14s %8d sent %6d accepted %6d delivered %6d missing %6d duplicates; link: %d drops, %d lost, "
+                        + "%.1f KB delivered; sessions: %s",
+                "", messages, sent, delivered, messages - delivered, duplicates[0], link.getDrops(),
+                link.getLostPayloads(), link.getDeliveredBytes() / 1024.0,
+                sessionStats == null
+                        ? "off"
+                        : sessionStats.resumes + " resumes, " + sessionStats.replayedMessages + " replayed, "
+                                + sessionStats.reconnectAttempts + " reconnect attempts"));
+        link.shutdown();
+    }
+
+    /** One side's bridge objects around a simulated {@code ConnectionsClient}. */
+    private final class NearbyStack {
+        final NearbyBroadcaster broadcaster;
+        final NearbyCompression compression = new NearbyCompression();
+        final NearbySessionManager sessions;
+        PayloadCallbackProxy payloadCallback;
+        ConnectionLifecycleCallbackProxy lifecycleCallback;
+
+        NearbyStack(ConnectionsClient client) {
+            broadcaster = new NearbyBroadcaster(client);
+            broadcaster.setCompression(compression);
+            sessions = new NearbySessionManager(client, broadcaster);
+            if (getBoolean("compression")) {
+                compression.enable(null, NearbyCompression.DEFAULT_MIN_MESSAGE_BYTES,
+                        NearbyCompression.DEFAULT_MAX_RATIO);
+            }
+            if (getBoolean("sessions")) {
+                sessions.enable(getInt("replayMessages"), NearbySessionManager.DEFAULT_RESUME_TIMEOUT_MILLIS);
+            }
+        }
+
+        void setPayloadCallback(PayloadCallbackProxy.Callback callback) {
+            payloadCallback = new PayloadCallbackProxy(callback);
+            payloadCallback.setTransferUpdateListener(broadcaster);
+            payloadCallback.setCompression(compression);
+            payloadCallback.setSessions(sessions);
+        }
+
+        void setLifecycleCallback(ConnectionLifecycleCallbackProxy.Callback callback) {
+            lifecycleCallback = new ConnectionLifecycleCallbackProxy(callback);
+            lifecycleCallback.setCompression(compression);
+            lifecycleCallback.setSessions(sessions);
+        }
+    }
+
+    private int getInt(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private long getLong(String name) {
+        return Long.parseLong(options.get(name));
+    }
+
+    private double getDouble(String name) {
+        return Double.parseDouble(options.get(name));
+    }
+
+    private boolean getBoolean(String name) {
+        return Boolean.parseBoolean(options.get(name));
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
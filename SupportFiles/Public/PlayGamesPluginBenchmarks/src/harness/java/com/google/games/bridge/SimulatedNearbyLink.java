@@ -0,0 +1,392 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
+import com.google.android.gms.common.api.Status;
+import com.google.android.gms.nearby.connection.ConnectionInfo;
+import com.google.android.gms.nearby.connection.ConnectionLifecycleCallback;
+import com.google.android.gms.nearby.connection.ConnectionResolution;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.nearby.connection.PayloadCallback;
+import com.google.android.gms.nearby.connection.PayloadTransferUpdate;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Nearby connection between two {@link ConnectionsClient}s in the same
+ * JVM, with configurable latency, transfer loss and bandwidth.
+ *
+ * <p>The advertiser advertises under a fixed endpoint id that the discoverer
+ * requests; the advertiser sees the discoverer under a new endpoint id for
+ * every connection, as Nearby does. Each direction is a FIFO pipe: a payload
+ * occupies it for its size divided by the bandwidth and arrives after the
+ * latency on top. A lost payload never arrives and its sender gets a failed
+ * transfer update. {@link #drop(long)} breaks the connection and refuses
+ * connection requests for an outage period. All callbacks run on one link
+ * thread, the way Nearby delivers them on the main thread.
+ */
+public final class SimulatedNearbyLink {
+
+    // ConnectionsStatusCodes
+    static final int STATUS_ENDPOINT_UNKNOWN = 8011;
+    static final int STATUS_ALREADY_CONNECTED_TO_ENDPOINT = 8003;
+    static final int STATUS_CONNECTION_REJECTED = 8004;
+
+    public static final String ADVERTISER_ENDPOINT_ID = "advertiser";
+
+    private final Object lock = new Object();
+    private final long latencyNanos;
+    private final double lossRate;
+    private final long bytesPerSecond;
+    private final Random random;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Side advertiser = new Side();
+    private final Side discoverer = new Side();
+
+    private String advertisedName;
+    private ConnectionLifecycleCallback advertiserCallback;
+    // Incremented for every connection; payloads of an older one are dropped.
+    private int connection;
+    private boolean connected;
+    private long outageEndsAtNanos;
+
+    private long deliveredPayloads;
+    private long lostPayloads;
+    private long deliveredBytes;
+    private int drops;
+
+    /**
+     * @param latencyMicros one-way latency
+     * @param lossRate share of payloads, 0 to 1, that fail to transfer
+     * @param bytesPerSecond bandwidth of each direction; 0 for unlimited
+     */
+    public SimulatedNearbyLink(long latencyMicros, double lossRate, long bytesPerSecond, long seed) {
+        this.latencyNanos = latencyMicros * 1000;
+        this.lossRate = lossRate;
+        this.bytesPerSecond = bytesPerSecond;
+        this.random = new Random(seed);
+        this.executor = new ScheduledThreadPoolExecutor(
+                1, new BridgeStartup.BackgroundThreadFactory("simulated-nearby-link"));
+    }
+
+    /** The advertising side; it learns about connections through {@link #advertise}. */
+    public ConnectionsClient getAdvertiser() {
+        return advertiser;
+    }
+
+    /** The discovering side; it connects to {@link #ADVERTISER_ENDPOINT_ID}. */
+    public ConnectionsClient getDiscoverer() {
+        return discoverer;
+    }
+
+    /** Stands in for {@code startAdvertising}, which the stand-in client does not declare. */
+    public void advertise(String name, ConnectionLifecycleCallback callback) {
+        synchronized (lock) {
+            advertisedName = name;
+            advertiserCallback = callback;
+        }
+    }
+
+    /**
+     * Breaks the current connection, as if the radio dropped out, and refuses
+     * connection requests for {@code outageMillis}.
+     */
+    public void drop(long outageMillis) {
+        final String discovererId;
+        final ConnectionLifecycleCallback advertiserLifecycle;
+        final ConnectionLifecycleCallback discovererLifecycle;
+        synchronized (lock) {
+            outageEndsAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(outageMillis);
+            if (!connected) {
+                return;
+            }
+            drops++;
+            connected = false;
+            connection++;
+            discovererId = advertiser.peerEndpointId;
+            advertiserLifecycle = advertiser.lifecycle;
+            discovererLifecycle = discoverer.lifecycle;
+            advertiser.reset();
+            discoverer.reset();
+        }
+        post(new Runnable() {
+            @Override
+            public void run() {
+                advertiserLifecycle.onDisconnected(discovererId);
+                discovererLifecycle.onDisconnected(ADVERTISER_ENDPOINT_ID);
+            }
+        });
+    }
+
+    public long getDeliveredPayloads() {
+        synchronized (lock) {
+            return deliveredPayloads;
+        }
+    }
+
+    public long getLostPayloads() {
+        synchronized (lock) {
+            return lostPayloads;
+        }
+    }
+
+    public long getDeliveredBytes() {
+        synchronized (lock) {
+            return deliveredBytes;
+        }
+    }
+
+    public int getDrops() {
+        synchronized (lock) {
+            return drops;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void post(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    private Side peerOf(Side side) {
+        return side == advertiser ? discoverer : advertiser;
+    }
+
+    /** Reports the connection result to both sides once both accepted. Called with the lock held. */
+    private void maybeConnectLocked() {
+        if (!advertiser.accepted || !discoverer.accepted || connected) {
+            return;
+        }
+        connected = true;
+        final String discovererId = advertiser.peerEndpointId;
+        final ConnectionLifecycleCallback advertiserLifecycle = advertiser.lifecycle;
+        final ConnectionLifecycleCallback discovererLifecycle = discoverer.lifecycle;
+        post(new Runnable() {
+            @Override
+            public void run() {
+                ConnectionResolution success = new ConnectionResolution(new Status(CommonStatusCodes.SUCCESS));
+                advertiserLifecycle.onConnectionResult(discovererId, success);
+                discovererLifecycle.onConnectionResult(ADVERTISER_ENDPOINT_ID, success);
+            }
+        });
+    }
+
+    private final class Side implements ConnectionsClient {
+        String peerEndpointId;
+        ConnectionLifecycleCallback lifecycle;
+        PayloadCallback payloadCallback;
+        boolean accepted;
+        // When this direction's pipe is free again.
+        long pipeFreeAtNanos;
+        // Payloads on their way to the peer, in the order they were sent.
+        final ArrayDeque<Runnable> deliveries = new ArrayDeque<>();
+
+        void reset() {
+            accepted = false;
+            payloadCallback = null;
+        }
+
+        @Override
+        public Task<Void> requestConnection(final String name, String endpointId,
+                ConnectionLifecycleCallback callback) {
+            final String discovererId;
+            final String advertiserName;
+            final ConnectionLifecycleCallback advertiserLifecycle;
+            synchronized (lock) {
+                if (this != discoverer || !ADVERTISER_ENDPOINT_ID.equals(endpointId)
+                        || advertiserCallback == null || System.nanoTime() < outageEndsAtNanos) {
+                    return Tasks.forException(new ApiException(new Status(STATUS_ENDPOINT_UNKNOWN)));
+                }
+                if (connected) {
+                    return Tasks.forException(new ApiException(new Status(STATUS_ALREADY_CONNECTED_TO_ENDPOINT)));
+                }
+                // Supersedes a request that was not accepted yet.
+                connection++;
+                discovererId = "discoverer-" + connection;
+                lifecycle = callback;
+                peerEndpointId = ADVERTISER_ENDPOINT_ID;
+                advertiser.lifecycle = advertiserCallback;
+                advertiser.peerEndpointId = discovererId;
+                advertiser.reset();
+                reset();
+                advertiserName = advertisedName;
+                advertiserLifecycle = advertiserCallback;
+            }
+            final ConnectionLifecycleCallback discovererLifecycle = callback;
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    advertiserLifecycle.onConnectionInitiated(discovererId, new ConnectionInfo(name, true));
+                    discovererLifecycle.onConnectionInitiated(ADVERTISER_ENDPOINT_ID,
+                            new ConnectionInfo(advertiserName, false));
+                }
+            });
+            return Tasks.forResult(null);
+        }
+
+        @Override
+        public Task<Void> acceptConnection(String endpointId, PayloadCallback callback) {
+            synchronized (lock) {
+                if (!endpointId.equals(peerEndpointId) || lifecycle == null) {
+                    return Tasks.forException(new ApiException(new Status(STATUS_ENDPOINT_UNKNOWN)));
+                }
+                payloadCallback = callback;
+                accepted = true;
+                maybeConnectLocked();
+            }
+            return Tasks.forResult(null);
+        }
+
+        @Override
+        public Task<Void> rejectConnection(String endpointId) {
+            final String discovererId;
+            final ConnectionLifecycleCallback advertiserLifecycle;
+            final ConnectionLifecycleCallback discovererLifecycle;
+            synchronized (lock) {
+                if (!endpointId.equals(peerEndpointId) || lifecycle == null || connected) {
+                    return Tasks.forException(new ApiException(new Status(STATUS_ENDPOINT_UNKNOWN)));
+                }
+                connection++;
+                discovererId = advertiser.peerEndpointId;
+                advertiserLifecycle = advertiser.lifecycle;
+                discovererLifecycle = discoverer.lifecycle;
+                advertiser.reset();
+                discoverer.reset();
+            }
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    ConnectionResolution rejected =
+                            new ConnectionResolution(new Status(STATUS_CONNECTION_REJECTED));
+                    advertiserLifecycle.onConnectionResult(discovererId, rejected);
+                    discovererLifecycle.onConnectionResult(ADVERTISER_ENDPOINT_ID, rejected);
+                }
+            });
+            return Tasks.forResult(null);
+        }
+
+        @Override
+        public Task<Void> sendPayload(String endpointId, Payload payload) {
+            return sendPayload(Collections.singletonList(endpointId), payload);
+        }
+
+        @Override
+        public Task<Void> sendPayload(List<String> endpointIds, final Payload payload) {
+            final Side peer = peerOf(this);
+            final int sentOnConnection;
+            final boolean lost;
+            final String senderId;
+            final String receiverId;
+            final PayloadCallback senderCallback;
+            long delayNanos;
+            synchronized (lock) {
+                if (!connected || endpointIds.size() != 1 || !endpointIds.get(0).equals(peerEndpointId)) {
+                    return Tasks.forException(new ApiException(new Status(STATUS_ENDPOINT_UNKNOWN)));
+                }
+                long now = System.nanoTime();
+                int size = payload.asBytes().length;
+                long transmitNanos = bytesPerSecond > 0 ? size * 1_000_000_000L / bytesPerSecond : 0;
+                pipeFreeAtNanos = Math.max(now, pipeFreeAtNanos) + transmitNanos;
+                delayNanos = pipeFreeAtNanos - now + latencyNanos;
+                lost = lossRate > 0 && random.nextDouble() < lossRate;
+                sentOnConnection = connection;
+                senderId = peer.peerEndpointId;
+                receiverId = peerEndpointId;
+                senderCallback = payloadCallback;
+                deliveries.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        PayloadCallback receiverCallback;
+                        boolean delivered;
+                        int size = payload.asBytes().length;
+                        synchronized (lock) {
+                            delivered = !lost && connected && connection == sentOnConnection;
+                            receiverCallback = peer.payloadCallback;
+                            if (delivered) {
+                                deliveredPayloads++;
+                                deliveredBytes += size;
+                            } else {
+                                lostPayloads++;
+                            }
+                        }
+                        if (delivered) {
+                            receiverCallback.onPayloadReceived(senderId, payload);
+                        }
+                        senderCallback.onPayloadTransferUpdate(receiverId, new PayloadTransferUpdate(
+                                payload.getId(),
+                                delivered ? PayloadTransferUpdate.Status.SUCCESS : PayloadTransferUpdate.Status.FAILURE,
+                                size, delivered ? size : 0));
+                    }
+                });
+            }
+            // Delays are measured before scheduling, so a payload can come due
+            // before an earlier one; each tick delivers the oldest instead.
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Runnable next;
+                    synchronized (lock) {
+                        next = deliveries.poll();
+                    }
+                    next.run();
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+            return Tasks.forResult(null);
+        }
+
+        @Override
+        public void disconnectFromEndpoint(String endpointId) {
+            final String id;
+            final ConnectionLifecycleCallback peerLifecycle;
+            synchronized (lock) {
+                if (!endpointId.equals(peerEndpointId) || lifecycle == null) {
+                    return;
+                }
+                Side peer = peerOf(this);
+                boolean wasConnected = connected;
+                connected = false;
+                connection++;
+                reset();
+                peer.reset();
+                if (!wasConnected) {
+                    return;
+                }
+                id = peer.peerEndpointId;
+                peerLifecycle = peer.lifecycle;
+            }
+            // Only the remote side is told, as with Nearby.
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    peerLifecycle.onDisconnected(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.content.Intent;
+import com.google.android.gms.games.AchievementsClient;
+import com.google.android.gms.games.AnnotatedData;
+import com.google.android.gms.games.achievement.Achievement;
+import com.google.android.gms.games.achievement.AchievementBuffer;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what reading achievements through {@link AchievementMirror} costs
+ * instead of a {@code load} round trip: starting from the saved file, reading
+ * the mirrored entries, applying a local increment, and encoding and decoding
+ * the file with its checksum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AchievementMirrorBenchmark {
+
+    private static final String PLAYER_ID = "benchmark-player";
+    // Large enough that increments never complete an achievement during a run.
+    private static final int TOTAL_STEPS = 1_000_000_000;
+
+    @Param({"50", "500"})
+    public int achievements;
+
+    private ExecutorService executor;
+    private File file;
+    private AchievementsClient client;
+    private AchievementMirror mirror;
+    private AchievementMirror.Entry[] entries;
+    private byte[] encoded;
+    private int nextIncrement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor(new BridgeStartup.BackgroundThreadFactory("benchmark-mirror"));
+        file = File.createTempFile("gpg_achievements", ".bin");
+        final List<Achievement> loaded = new ArrayList<>();
+        for (int i = 0; i < achievements; i++) {
+            loaded.add(new FakeAchievement(i));
+        }
+        client = new LoadingAchievementsClient(loaded);
+
+        // Fill the mirror once through a load so that the file exists.
+        mirror = new AchievementMirror(client, file, PLAYER_ID, executor);
+        mirror.reconcile();
+        // The merge runs on the executor and schedules the save behind it.
+        drainExecutor();
+        drainExecutor();
+        entries = mirror.getAchievements();
+        if (entries.length != achievements || !file.exists()) {
+            throw new IllegalStateException("Reconcile loaded " + entries.length + " achievements");
+        }
+        encoded = AchievementMirror.encode(PLAYER_ID, entries);
+    }
+
+    private void drainExecutor() throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        file.delete();
+    }
+
+    @Benchmark
+    public int startFromDisk() {
+        AchievementMirror started = new AchievementMirror(client, file, PLAYER_ID, executor);
+        started.loadFromDisk();
+        return started.getAchievements().length;
+    }
+
+    @Benchmark
+    public int readMirror() {
+        return mirror.getAchievements().length;
+    }
+
+    /** Only the even achievements are incremental. */
+    @Benchmark
+    public int optimisticIncrement() {
+        int index = nextIncrement;
+        nextIncrement = (index + 2) % achievements;
+        mirror.increment("achievement-" + index, 1);
+        return mirror.getAchievement("achievement-" + index).currentSteps;
+    }
+
+    @Benchmark
+    public byte[] encodeWithChecksum() throws IOException {
+        return AchievementMirror.encode(PLAYER_ID, entries);
+    }
+
+    @Benchmark
+    public AchievementMirror.Entry[] decodeAndVerify() throws IOException {
+        return AchievementMirror.decode(PLAYER_ID, encoded);
+    }
+
+    private static final class FakeAchievement implements Achievement {
+        private final int index;
+
+        FakeAchievement(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getAchievementId() {
+            return "achievement-" + index;
+        }
+
+        @Override
+        public String getName() {
+            return "Achievement " + index;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Description of achievement " + index;
+        }
+
+        @Override
+        public int getType() {
+            return index % 2 == 0 ? TYPE_INCREMENTAL : TYPE_STANDARD;
+        }
+
+        @Override
+        public int getState() {
+            // Some standard achievements are unlocked; incremental ones stay open.
+            return index % 2 == 1 && index % 3 == 0 ? STATE_UNLOCKED : STATE_REVEALED;
+        }
+
+        @Override
+        public int getCurrentSteps() {
+            return 0;
+        }
+
+        @Override
+        public int getTotalSteps() {
+            return TOTAL_STEPS;
+        }
+
+        @Override
+        public long getLastUpdatedTimestamp() {
+            return 1_700_000_000_000L + index;
+        }
+
+        @Override
+        public long getXpValue() {
+            return 100;
+        }
+
+        @Override
+        public String getRevealedImageUrl() {
+            return "https://example.com/achievements/" + index + "/revealed.png";
+        }
+
+        @Override
+        public String getUnlockedImageUrl() {
+            return "https://example.com/achievements/" + index + "/unlocked.png";
+        }
+    }
+
+    /** Returns the achievements from {@code load}; everything else does nothing. */
+    private static final class LoadingAchievementsClient implements AchievementsClient {
+        private final List<Achievement> achievements;
+
+        LoadingAchievementsClient(List<Achievement> achievements) {
+            this.achievements = achievements;
+        }
+
+        @Override
+        public Task<Intent> getAchievementsIntent() {
+            return Tasks.forResult(new Intent());
+        }
+
+        @Override
+        public Task<AnnotatedData<AchievementBuffer>> load(boolean forceReload) {
+            return Tasks.forResult(new AnnotatedData<>(new AchievementBuffer(achievements), false));
+        }
+
+        @Override
+        public void unlock(String id) {
+        }
+
+        @Override
+        public Task<Void> unlockImmediate(String id) {
+            return Tasks.forResult(null);
+        }
+
+        @Override
+        public void reveal(String id) {
+        }
+
+        @Override
+        public void increment(String id, int numSteps) {
+        }
+
+        @Override
+        public Task<Boolean> incrementImmediate(String id, int numSteps) {
+            return Tasks.forResult(false);
+        }
+
+        @Override
+        public void setSteps(String id, int numSteps) {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import com.google.android.gms.games.AchievementsClient;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures client lookups through {@link ClientRegistry}, both for a cached
+ * client and for the first lookup after the activity was destroyed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientRegistryBenchmark {
+
+    private Activity activity;
+
+    @Setup
+    public void setUp() {
+        activity = new Activity();
+        ClientRegistry.getAchievementsClient(activity);
+    }
+
+    @Benchmark
+    public AchievementsClient cachedLookup() {
+        return ClientRegistry.getAchievementsClient(activity);
+    }
+
+    @Benchmark
+    public AchievementsClient lookupAfterDestroy() {
+        activity.getApplication().dispatchActivityDestroyed(activity);
+        return ClientRegistry.getAchievementsClient(activity);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.content.Intent;
+import android.os.Bundle;
+import com.google.android.gms.games.AnnotatedData;
+import com.google.android.gms.games.Player;
+import com.google.android.gms.games.PlayerBuffer;
+import com.google.android.gms.games.PlayerRelationshipInfo;
+import com.google.android.gms.games.PlayersClient;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scrolls through a friends list with {@link FriendsIterator}, against a
+ * players client that answers each page after a fixed delay. A low-water mark
+ * of zero only loads a page once the previous one is used up, which is how
+ * {@code LoadFriends}/{@code LoadMoreFriends} behave; a positive one overlaps
+ * the load with scrolling. Frames that found no friends to show are counted
+ * as stalls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendsIteratorBenchmark {
+
+    private static final int FRIENDS = 200;
+    private static final int PAGE_SIZE = 25;
+    private static final int FRIENDS_PER_FRAME = 5;
+    private static final long PAGE_LATENCY_MICROS = 500;
+    private static final long FRAME_WORK_TOKENS = 100_000;
+
+    @Param({"0", "15"})
+    public int lowWaterMark;
+
+    private ScheduledExecutorService network;
+    private ExecutorService conversion;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Stalls {
+        public long stalledFrames;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = Executors.newSingleThreadScheduledExecutor();
+        conversion = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        network.shutdownNow();
+        conversion.shutdownNow();
+    }
+
+    @Benchmark
+    public int scrollFriendsList(Stalls stalls) {
+        FriendsIterator iterator = new FriendsIterator(
+                new FakePlayersClient(network), conversion, PAGE_SIZE, lowWaterMark, 2, false);
+        iterator.start();
+        int seen = 0;
+        while (!iterator.isComplete()) {
+            FriendsIterator.Friend[] batch = iterator.next(FRIENDS_PER_FRAME);
+            if (batch.length == 0) {
+                stalls.stalledFrames++;
+            }
+            seen += batch.length;
+            Blackhole.consumeCPU(FRAME_WORK_TOKENS);
+        }
+        if (seen != FRIENDS) {
+            throw new IllegalStateException("Scrolled through " + seen + " of " + FRIENDS + " friends");
+        }
+        return seen;
+    }
+
+    /**
+     * Serves {@link #FRIENDS} friends in pages, each after
+     * {@link #PAGE_LATENCY_MICROS}. Like the real client, every buffer holds
+     * all the friends loaded so far.
+     */
+    private static final class FakePlayersClient implements PlayersClient {
+        private final ScheduledExecutorService network;
+        private int nextFriend;
+
+        FakePlayersClient(ScheduledExecutorService network) {
+            this.network = network;
+        }
+
+        @Override
+        public Task<Intent> getCompareProfileIntentWithAlternativeNameHints(
+                String otherPlayerId, String otherPlayerInGameName, String currentPlayerInGameName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Task<AnnotatedData<PlayerBuffer>> loadFriends(int pageSize, boolean forceReload) {
+            nextFriend = 0;
+            return loadMoreFriends(pageSize);
+        }
+
+        @Override
+        public Task<AnnotatedData<PlayerBuffer>> loadMoreFriends(int pageSize) {
+            nextFriend = Math.min(nextFriend + pageSize, FRIENDS);
+            final List<Player> players = new ArrayList<>(nextFriend);
+            for (int i = 0; i < nextFriend; i++) {
+                players.add(new FakePlayer("player" + i));
+            }
+            final Bundle metadata = new Bundle();
+            if (nextFriend < FRIENDS) {
+                metadata.putString("next_page_token", "page" + nextFriend);
+            }
+            final TaskCompletionSource<AnnotatedData<PlayerBuffer>> source = new TaskCompletionSource<>();
+            network.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    source.setResult(new AnnotatedData<>(new PlayerBuffer(players, metadata), false));
+                }
+            }, PAGE_LATENCY_MICROS, TimeUnit.MICROSECONDS);
+            return source.getTask();
+        }
+    }
+
+    private static final class FakePlayer implements Player, PlayerRelationshipInfo {
+        private final String playerId;
+
+        FakePlayer(String playerId) {
+            this.playerId = playerId;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Friend " + playerId;
+        }
+
+        @Override
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        @Override
+        public String getIconImageUrl() {
+            return "https://example.com/" + playerId + ".png";
+        }
+
+        @Override
+        public PlayerRelationshipInfo getRelationshipInfo() {
+            return this;
+        }
+
+        @Override
+        public int getFriendStatus() {
+            return 4;
+        }
+    }
+}
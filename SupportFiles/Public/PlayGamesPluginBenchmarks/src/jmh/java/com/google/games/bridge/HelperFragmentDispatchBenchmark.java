@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.app.Fragment;
+import com.google.android.gms.tasks.Task;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full request round trip through {@link HelperFragment}: queueing
+ * the request, dispatching it to the resumed fragment, launching the intent and
+ * mapping the activity result back onto the returned task.
+ *
+ * <p>{@link HelperFragment} only allows one outstanding request per process, so
+ * this benchmark is single threaded by design.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelperFragmentDispatchBenchmark {
+
+    private static final String FRAGMENT_TAG = "gpg.HelperFragment";
+
+    private Activity activity;
+    private HelperFragment fragment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        activity = new Activity();
+        // The first request creates and attaches the fragment.
+        Task<Integer> task = HelperFragment.showAchievementUi(activity);
+        fragment = (HelperFragment) activity.getFragmentManager().findFragmentByTag(FRAGMENT_TAG);
+        fragment.onActivityResult(HelperFragment.RC_SIMPLE_UI, Activity.RESULT_OK, null);
+        if (task.getResult() != CommonUIStatus.VALID) {
+            throw new IllegalStateException("Unexpected warm-up result " + task.getResult());
+        }
+    }
+
+    @Benchmark
+    public int achievementUiRoundTrip() {
+        Task<Integer> task = HelperFragment.showAchievementUi(activity);
+        fragment.onActivityResult(HelperFragment.RC_SIMPLE_UI, Activity.RESULT_CANCELED, null);
+        return task.getResult();
+    }
+
+    @Benchmark
+    public int leaderboardUiRoundTrip() {
+        Task<Integer> task = HelperFragment.showLeaderboardUi(activity, "leaderboard", 2);
+        fragment.onActivityResult(HelperFragment.RC_SIMPLE_UI, Activity.RESULT_OK, null);
+        return task.getResult();
+    }
+
+    @Benchmark
+    public int selectSnapshotUiRoundTrip() {
+        Task<SelectSnapshotUiRequest.Result> task =
+                HelperFragment.showSelectSnapshotUi(activity, "Saves", true, true, 5);
+        fragment.onActivityResult(HelperFragment.RC_SELECT_SNAPSHOT_UI, Activity.RESULT_CANCELED, null);
+        return task.getResult().status;
+    }
+
+    /** A second request while one is still running is rejected as busy. */
+    @Benchmark
+    public int busyRejection() {
+        Task<Integer> running = HelperFragment.showAllLeaderboardsUi(activity);
+        Task<Integer> rejected = HelperFragment.showAchievementUi(activity);
+        fragment.onActivityResult(HelperFragment.RC_SIMPLE_UI, Activity.RESULT_OK, null);
+        return running.getResult() + rejected.getResult();
+    }
+}
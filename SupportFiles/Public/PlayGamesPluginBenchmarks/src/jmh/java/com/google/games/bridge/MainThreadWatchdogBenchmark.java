@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.os.Looper;
+import android.view.Choreographer;
+import com.google.android.gms.nearby.connection.Payload;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what {@link MainThreadWatchdog} adds to a proxy callback: nothing
+ * when disabled, bookkeeping when enabled, and stack capture when every call
+ * is over the threshold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MainThreadWatchdogBenchmark {
+
+    /** Negative disables the watchdog. */
+    @Param({"-1", "1000", "0"})
+    public int thresholdMillis;
+
+    private PayloadCallbackProxy proxy;
+    private Payload payload;
+    private long frameTimeNanos;
+
+    @Setup
+    public void setUp() {
+        // The benchmark thread plays the main thread.
+        Looper.prepareMainLooper();
+        if (thresholdMillis >= 0) {
+            MainThreadWatchdog.enable(thresholdMillis, 16);
+        }
+        proxy = new PayloadCallbackProxy(new PayloadCallbackProxy.Callback() {
+            @Override
+            public void onPayloadReceived(String endpointId, Payload payload) {
+            }
+        });
+        payload = Payload.fromBytes(new byte[64]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MainThreadWatchdog.disable();
+        MainThreadWatchdog.reset();
+    }
+
+    @Benchmark
+    public void payloadCallback() {
+        proxy.onPayloadReceived("endpoint", payload);
+    }
+
+    @Benchmark
+    public void payloadCallbackAndFrame() {
+        proxy.onPayloadReceived("endpoint", payload);
+        frameTimeNanos += MainThreadWatchdog.FRAME_INTERVAL_NANOS;
+        Choreographer.getInstance().dispatchFrame(frameTimeNanos);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.nearby.connection.PayloadTransferUpdate;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link NearbyBroadcaster#broadcast(List, byte[])} to eight
+ * endpoints, some of which only acknowledge their transfers every few
+ * messages and so keep their queues and in-flight caps busy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbyBroadcasterBenchmark {
+
+    private static final int ENDPOINTS = 8;
+    private static final int LAGGING_ACK_INTERVAL = 8;
+
+    @Param({"0", "2"})
+    public int laggingEndpoints;
+
+    @Param({"512"})
+    public int messageBytes;
+
+    private NearbyBroadcaster broadcaster;
+    private List<String> endpointIds;
+    private byte[] message;
+    private final List<String> pendingEndpoints = new ArrayList<>();
+    private final List<Long> pendingPayloads = new ArrayList<>();
+    private final List<String> laggingPendingEndpoints = new ArrayList<>();
+    private final List<Long> laggingPendingPayloads = new ArrayList<>();
+    private int broadcasts;
+
+    @Setup
+    public void setUp() {
+        endpointIds = new ArrayList<>();
+        for (int i = 0; i < ENDPOINTS; i++) {
+            endpointIds.add("endpoint-" + i);
+        }
+        message = new byte[messageBytes];
+        broadcaster = new NearbyBroadcaster(new NearbyBroadcaster.PayloadSender() {
+            @Override
+            public Task<Void> sendPayload(List<String> ids, Payload payload) {
+                for (String id : ids) {
+                    pendingEndpoints.add(id);
+                    pendingPayloads.add(payload.getId());
+                }
+                return Tasks.forResult(null);
+            }
+        });
+    }
+
+    @Benchmark
+    public int broadcast() {
+        int accepted = broadcaster.broadcast(endpointIds, message);
+        broadcasts++;
+        // Acknowledge outside of sendPayload, the way Nearby reports transfers.
+        for (int i = 0; i < pendingEndpoints.size(); i++) {
+            String id = pendingEndpoints.get(i);
+            if (isLagging(id)) {
+                laggingPendingEndpoints.add(id);
+                laggingPendingPayloads.add(pendingPayloads.get(i));
+            } else {
+                acknowledge(id, pendingPayloads.get(i));
+            }
+        }
+        pendingEndpoints.clear();
+        pendingPayloads.clear();
+        if (broadcasts % LAGGING_ACK_INTERVAL == 0) {
+            List<String> ids = new ArrayList<>(laggingPendingEndpoints);
+            List<Long> payloadIds = new ArrayList<>(laggingPendingPayloads);
+            laggingPendingEndpoints.clear();
+            laggingPendingPayloads.clear();
+            for (int i = 0; i < ids.size(); i++) {
+                acknowledge(ids.get(i), payloadIds.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    private boolean isLagging(String endpointId) {
+        return endpointIds.indexOf(endpointId) < laggingEndpoints;
+    }
+
+    private void acknowledge(String endpointId, long payloadId) {
+        broadcaster.onPayloadTransferUpdate(endpointId, new PayloadTransferUpdate(
+                payloadId, PayloadTransferUpdate.Status.SUCCESS, messageBytes, messageBytes));
+    }
+}
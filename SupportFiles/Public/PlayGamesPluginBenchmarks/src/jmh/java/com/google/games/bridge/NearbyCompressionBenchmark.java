@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link NearbyCompression} on structured game-state messages, with
+ * and without a preset dictionary, and reports the ratio it reached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbyCompressionBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String DICTIONARY =
+            "{\"players\":[{\"id\":\"\",\"x\":,\"y\":,\"z\":,\"heading\":,\"health\":,\"state\":\"idle\"}"
+                    + ",\"state\":\"running\"},\"state\":\"jumping\"}],\"tick\":";
+
+    @Param({"64", "512", "4096"})
+    public int messageBytes;
+
+    @Param({"true", "false"})
+    public boolean useDictionary;
+
+    private static final String ENDPOINT_ID = "peer";
+
+    private NearbyCompression compression;
+    private byte[] message;
+    private byte[] frame;
+
+    @Setup
+    public void setUp() {
+        compression = new NearbyCompression();
+        compression.enable(
+                useDictionary ? DICTIONARY.getBytes(UTF_8) : null,
+                NearbyCompression.DEFAULT_MIN_MESSAGE_BYTES,
+                NearbyCompression.DEFAULT_MAX_RATIO);
+        compression.onConnectionInitiated(ENDPOINT_ID, compression.getAdvertisedName(ENDPOINT_ID));
+        message = gameState(messageBytes);
+        frame = compression.encode(ENDPOINT_ID, message);
+        if (!Arrays.equals(message, compression.decode(frame))) {
+            throw new IllegalStateException("Round trip changed the message");
+        }
+        System.out.println(
+                "\n" + messageBytes + " bytes -> " + frame.length + " bytes, dictionary " + useDictionary);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return compression.encode(ENDPOINT_ID, message);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return compression.decode(frame);
+    }
+
+    private static byte[] gameState(int size) {
+        Random random = new Random(42);
+        String[] states = {"idle", "running", "jumping"};
+        StringBuilder builder = new StringBuilder("{\"players\":[");
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"p").append(i)
+                    .append("\",\"x\":").append(random.nextInt(2000))
+                    .append(",\"y\":").append(random.nextInt(200))
+                    .append(",\"z\":").append(random.nextInt(2000))
+                    .append(",\"heading\":").append(random.nextInt(360))
+                    .append(",\"health\":").append(random.nextInt(101))
+                    .append(",\"state\":\"").append(states[random.nextInt(states.length)]).append("\"}");
+        }
+        return Arrays.copyOf(builder.toString().getBytes(UTF_8), size);
+    }
+}
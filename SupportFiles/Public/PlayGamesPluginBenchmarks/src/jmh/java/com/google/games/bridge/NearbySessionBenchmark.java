@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import com.google.android.gms.nearby.connection.ConnectionInfo;
+import com.google.android.gms.nearby.connection.ConnectionLifecycleCallback;
+import com.google.android.gms.nearby.connection.ConnectionResolution;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.nearby.connection.PayloadCallback;
+import com.google.android.gms.nearby.connection.PayloadTransferUpdate;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link NearbySessionManager}: reliable sends to four session
+ * endpoints against sends without sessions, and a full dropout cycle in which
+ * one endpoint disconnects, misses some messages, reconnects under a new
+ * endpoint id and gets only the missed messages replayed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbySessionBenchmark {
+
+    private static final int ENDPOINTS = 4;
+    private static final int ACK_INTERVAL = 32;
+
+    @Param({"8", "64"})
+    public int missedMessages;
+
+    @Param({"256"})
+    public int messageBytes;
+
+    private final List<String> pendingEndpoints = new ArrayList<>();
+    private final List<Long> pendingPayloads = new ArrayList<>();
+    private ScheduledThreadPoolExecutor scheduler;
+    private NearbyBroadcaster broadcaster;
+    private NearbySessionManager sessions;
+    private ConnectionLifecycleCallbackProxy lifecycleCallback;
+    private List<String> sessionEndpoints;
+    private List<String> plainEndpoints;
+    private byte[] message;
+    private long sequence;
+    // The current endpoint id of the session that keeps dropping out.
+    private String droppingEndpoint;
+    private String droppingSessionId;
+    private int reconnects;
+
+    @Setup
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(1, new BridgeStartup.BackgroundThreadFactory("benchmark-session"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        ConnectionsClient client = new ConnectionsClient() {
+            @Override
+            public Task<Void> requestConnection(String name, String endpointId,
+                    ConnectionLifecycleCallback callback) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> acceptConnection(String endpointId, PayloadCallback callback) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> rejectConnection(String endpointId) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> sendPayload(String endpointId, Payload payload) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> sendPayload(List<String> endpointIds, Payload payload) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public void disconnectFromEndpoint(String endpointId) {
+            }
+        };
+        broadcaster = new NearbyBroadcaster(new NearbyBroadcaster.PayloadSender() {
+            @Override
+            public Task<Void> sendPayload(List<String> ids, Payload payload) {
+                for (String id : ids) {
+                    pendingEndpoints.add(id);
+                    pendingPayloads.add(payload.getId());
+                }
+                return Tasks.forResult(null);
+            }
+        });
+        sessions = new NearbySessionManager(client, broadcaster, scheduler);
+        sessions.enable(NearbySessionManager.DEFAULT_MAX_REPLAY_MESSAGES,
+                NearbySessionManager.DEFAULT_RESUME_TIMEOUT_MILLIS);
+        lifecycleCallback = new ConnectionLifecycleCallbackProxy(new ConnectionLifecycleCallbackProxy.Callback() {
+            @Override
+            public void onConnectionResult(String endpointId, ConnectionResolution resolution) {
+            }
+
+            @Override
+            public void onDisconnected(String endpointId) {
+            }
+
+            @Override
+            public void onConnectionInitiated(String endpointId, ConnectionInfo connectionInfo) {
+            }
+        });
+        PayloadCallbackProxy payloadCallback = new PayloadCallbackProxy(new PayloadCallbackProxy.Callback() {
+            @Override
+            public void onPayloadReceived(String endpointId, Payload payload) {
+            }
+        });
+
+        sessionEndpoints = new ArrayList<>();
+        plainEndpoints = new ArrayList<>();
+        for (int i = 0; i < ENDPOINTS; i++) {
+            String endpointId = "session-" + i;
+            String sessionId = "5e55" + i;
+            sessions.onConnectionInitiated(endpointId, EndpointNames.withToken("peer", 's', sessionId),
+                    /* incoming= */ true, lifecycleCallback);
+            sessions.acceptConnection(endpointId, payloadCallback);
+            sessions.onConnectionResult(endpointId, /* success= */ true);
+            sessionEndpoints.add(endpointId);
+            plainEndpoints.add("plain-" + i);
+            if (i == 0) {
+                droppingEndpoint = endpointId;
+                droppingSessionId = sessionId;
+            }
+        }
+        message = new byte[messageBytes];
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+        System.out.println("\nreplayed " + sessions.getStats(sessionEndpoints.get(0)).replayedMessages
+                + " messages over " + reconnects + " reconnects");
+    }
+
+    @Benchmark
+    public int sendReliable() {
+        int accepted = sessions.send(sessionEndpoints, message, /* reliable= */ true);
+        sequence++;
+        if (sequence % ACK_INTERVAL == 0) {
+            acknowledgeAll();
+        }
+        completeTransfers();
+        return accepted;
+    }
+
+    @Benchmark
+    public int sendWithoutSession() {
+        int accepted = sessions.send(plainEndpoints, message, /* reliable= */ true);
+        completeTransfers();
+        return accepted;
+    }
+
+    @Benchmark
+    public long dropoutAndResume() {
+        // Everything sent so far reached the peer before the link dropped.
+        long lastReceived = sequence;
+        sessions.onDisconnected(droppingEndpoint);
+        List<String> target = new ArrayList<>(1);
+        target.add(sessionEndpoints.get(0));
+        for (int i = 0; i < missedMessages; i++) {
+            sessions.send(target, message, /* reliable= */ true);
+            sequence++;
+        }
+
+        droppingEndpoint = "session-0-" + (++reconnects);
+        sessions.onConnectionInitiated(droppingEndpoint, EndpointNames.withToken("peer", 's', droppingSessionId),
+                /* incoming= */ true, lifecycleCallback);
+        sessions.onConnectionResult(droppingEndpoint, /* success= */ true);
+        sessions.onMessageReceived(droppingEndpoint, frame(NearbySessionManager.FRAME_RESUME, lastReceived));
+        sessions.onMessageReceived(droppingEndpoint, frame(NearbySessionManager.FRAME_ACK, sequence));
+        completeTransfers();
+        return sequence;
+    }
+
+    private void acknowledgeAll() {
+        byte[] ack = frame(NearbySessionManager.FRAME_ACK, sequence);
+        for (String endpointId : sessionEndpoints) {
+            sessions.onMessageReceived(endpointId, ack);
+        }
+    }
+
+    private void completeTransfers() {
+        List<String> ids = new ArrayList<>(pendingEndpoints);
+        List<Long> payloadIds = new ArrayList<>(pendingPayloads);
+        pendingEndpoints.clear();
+        pendingPayloads.clear();
+        for (int i = 0; i < ids.size(); i++) {
+            broadcaster.onPayloadTransferUpdate(ids.get(i), new PayloadTransferUpdate(
+                    payloadIds.get(i), PayloadTransferUpdate.Status.SUCCESS, messageBytes, messageBytes));
+        }
+    }
+
+    private static byte[] frame(byte type, long sequence) {
+        byte[] frame = new byte[9];
+        frame[0] = type;
+        for (int i = 0; i < 8; i++) {
+            frame[1 + i] = (byte) (sequence >>> (56 - 8 * i));
+        }
+        return frame;
+    }
+}
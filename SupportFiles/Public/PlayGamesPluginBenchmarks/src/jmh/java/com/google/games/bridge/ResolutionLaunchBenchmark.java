@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.app.PendingIntent;
+import android.content.Intent;
+import com.google.android.gms.tasks.Task;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bridge's own work for a friends access resolution launched
+ * directly from {@link HelperFragment} with the fallback through
+ * {@link GenericResolutionActivity}: from the request until its task has the
+ * mapped result. The same is measured for an intent bridged from the native
+ * SDK, launched through {@link NativeBridgeRequest} or
+ * {@link NativeBridgeActivity}, until its result is forwarded to the SDK.
+ * There is no native library on the JVM, so the forward itself ends in an
+ * {@link UnsatisfiedLinkError} on both paths; it is caught, and the fork runs
+ * without stack traces so that throwing it stays cheap. The failed native
+ * lookup still dominates the time of the bridged benchmarks, so compare their
+ * allocation rather than their scores.
+ *
+ * <p>The fallback creates the transparent activity, passes the pending intent
+ * as an extra, launches it from there and forwards the result back. Activity
+ * starts and finishes are only recorded by the stand-ins, so the time the
+ * system spends on them, which is what the direct launch mostly saves, is not
+ * part of this measurement and has to be measured on a device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:-StackTraceInThrowable")
+public class ResolutionLaunchBenchmark {
+
+    private static final String FRAGMENT_TAG = "gpg.HelperFragment";
+    private static final String PENDING_INTENT_EXTRA = "RequestFriendsAccessPermissionPendingIntent";
+    private static final String BRIDGED_INTENT_EXTRA = "BRIDGED_INTENT";
+    // NativeBridgeActivity's request code for the bridged intent.
+    private static final int GPG_RESPONSE_CODE = 0x475047;
+
+    private Activity activity;
+    private HelperFragment fragment;
+    private PendingIntent pendingIntent;
+    private Intent bridgedIntent;
+    private long forwardedResults;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        activity = new Activity();
+        pendingIntent = new PendingIntent();
+        bridgedIntent = new Intent();
+        // The first request creates and attaches the fragment.
+        HelperFragment.setDirectLaunchEnabled(true);
+        Task<Integer> task = HelperFragment.askForLoadFriendsResolution(activity, pendingIntent);
+        fragment = (HelperFragment) activity.getFragmentManager().findFragmentByTag(FRAGMENT_TAG);
+        fragment.onActivityResult(HelperFragment.RC_RESOLUTION_DIALOG, Activity.RESULT_OK, null);
+        if (task.getResult() != GenericResolutionUiRequest.SELECT_UI_STATUS_RESULT_OK) {
+            throw new IllegalStateException("Unexpected warm-up result " + task.getResult());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HelperFragment.setDirectLaunchEnabled(true);
+        System.out.println("\nforwarded " + forwardedResults + " bridged results");
+    }
+
+    @Benchmark
+    public int directLaunch() {
+        HelperFragment.setDirectLaunchEnabled(true);
+        Task<Integer> task = HelperFragment.askForLoadFriendsResolution(activity, pendingIntent);
+        fragment.onActivityResult(HelperFragment.RC_RESOLUTION_DIALOG, Activity.RESULT_OK, null);
+        return task.getResult();
+    }
+
+    @Benchmark
+    public int activityLaunch() {
+        HelperFragment.setDirectLaunchEnabled(false);
+        Task<Integer> task = HelperFragment.askForLoadFriendsResolution(activity, pendingIntent);
+        // What the system does with the intent the request started.
+        GenericResolutionActivity resolutionActivity = new GenericResolutionActivity();
+        Intent intent = new Intent(activity, GenericResolutionActivity.class);
+        intent.putExtra(PENDING_INTENT_EXTRA, pendingIntent);
+        resolutionActivity.setIntent(intent);
+        resolutionActivity.onCreate(null);
+        resolutionActivity.onActivityResult(HelperFragment.RC_RESOLUTION_DIALOG, Activity.RESULT_OK, null);
+        // Finishing the transparent activity delivers its result to the fragment.
+        fragment.onActivityResult(
+                HelperFragment.RC_RESOLUTION_DIALOG, resolutionActivity.getResultCode(), null);
+        return task.getResult();
+    }
+
+    @Benchmark
+    public long bridgedDirectLaunch() {
+        // What NativeBridgeActivity.launchBridgeIntent does once the native
+        // library is loaded.
+        if (!HelperFragment.launchBridgeIntent(activity, bridgedIntent)) {
+            throw new IllegalStateException("Bridged intent was not launched from the fragment");
+        }
+        try {
+            fragment.onActivityResult(HelperFragment.RC_NATIVE_BRIDGE, Activity.RESULT_OK, null);
+        } catch (UnsatisfiedLinkError e) {
+            forwardedResults++;
+        }
+        return forwardedResults;
+    }
+
+    @Benchmark
+    public long bridgedActivityLaunch() {
+        NativeBridgeActivity.launchBridgeActivity(activity, bridgedIntent);
+        // What the system does with the intent the bridge started. onCreate
+        // only loads the native library and sets a view, so it is skipped.
+        NativeBridgeActivity bridgeActivity = new NativeBridgeActivity();
+        Intent intent = new Intent(activity, NativeBridgeActivity.class);
+        intent.putExtra(BRIDGED_INTENT_EXTRA, bridgedIntent);
+        bridgeActivity.setIntent(intent);
+        bridgeActivity.onStart();
+        try {
+            bridgeActivity.onActivityResult(GPG_RESPONSE_CODE, Activity.RESULT_OK, null);
+        } catch (UnsatisfiedLinkError e) {
+            forwardedResults++;
+        }
+        return forwardedResults;
+    }
+}
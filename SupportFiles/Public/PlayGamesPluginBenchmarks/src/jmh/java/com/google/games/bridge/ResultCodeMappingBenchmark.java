@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.app.PendingIntent;
+import android.content.Intent;
+import com.google.android.gms.games.GamesActivityResultCodes;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the mapping of Android activity result codes onto the UI status
+ * codes reported to C#, including completing the request task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultCodeMappingBenchmark {
+
+    @Param({"OK", "CANCELED", "RECONNECT_REQUIRED", "UNKNOWN"})
+    public String result;
+
+    private int resultCode;
+    private PendingIntent pendingIntent;
+    private Intent data;
+
+    @Setup
+    public void setUp() {
+        switch (result) {
+            case "OK":
+                resultCode = Activity.RESULT_OK;
+                break;
+            case "CANCELED":
+                resultCode = Activity.RESULT_CANCELED;
+                break;
+            case "RECONNECT_REQUIRED":
+                resultCode = GamesActivityResultCodes.RESULT_RECONNECT_REQUIRED;
+                break;
+            default:
+                resultCode = 42;
+                break;
+        }
+        pendingIntent = new PendingIntent();
+        data = new Intent();
+    }
+
+    @Benchmark
+    public int simpleUi() {
+        SimpleUiRequest request = new SimpleUiRequest();
+        request.onActivityResult(HelperFragment.RC_SIMPLE_UI, resultCode, null);
+        return request.getTask().getResult();
+    }
+
+    @Benchmark
+    public int selectSnapshotUi() {
+        SelectSnapshotUiRequest request = new SelectSnapshotUiRequest("Saves", true, true, 5);
+        request.onActivityResult(HelperFragment.RC_SELECT_SNAPSHOT_UI, resultCode, data);
+        return request.getTask().getResult().status;
+    }
+
+    @Benchmark
+    public int genericResolution() {
+        GenericResolutionUiRequest request = new GenericResolutionUiRequest(pendingIntent);
+        request.onActivityResult(HelperFragment.RC_RESOLUTION_DIALOG, resultCode, null);
+        return request.getTask().getResult();
+    }
+}
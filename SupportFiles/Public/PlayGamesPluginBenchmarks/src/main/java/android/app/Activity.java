@@ -0,0 +1,96 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentSender;
+import android.os.Bundle;
+import android.view.View;
+import android.view.Window;
+
+/**
+ * JVM stand-in for {@code android.app.Activity}. Fragment transactions commit
+ * synchronously and started activities are only recorded.
+ */
+public class Activity extends Context {
+    public static final int RESULT_OK = -1;
+    public static final int RESULT_CANCELED = 0;
+
+    private static final Application application = new Application();
+
+    private final FragmentManager fragmentManager = new FragmentManager(this);
+    private final Window window = new Window(this);
+    private Intent intent = new Intent();
+    private int resultCode = RESULT_CANCELED;
+    private boolean finishing;
+
+    public final Application getApplication() {
+        return application;
+    }
+
+    public FragmentManager getFragmentManager() {
+        return fragmentManager;
+    }
+
+    public Window getWindow() {
+        return window;
+    }
+
+    public Intent getIntent() {
+        return intent;
+    }
+
+    public void setIntent(Intent intent) {
+        this.intent = intent;
+    }
+
+    public void startActivity(Intent intent) {
+    }
+
+    public void startActivityForResult(Intent intent, int requestCode) {
+    }
+
+    public void startIntentSenderForResult(IntentSender intent, int requestCode, Intent fillInIntent,
+            int flagsMask, int flagsValues, int extraFlags, Bundle options)
+            throws IntentSender.SendIntentException {
+    }
+
+    public void setContentView(View view) {
+    }
+
+    public final void setResult(int resultCode) {
+        this.resultCode = resultCode;
+    }
+
+    public int getResultCode() {
+        return resultCode;
+    }
+
+    public void finish() {
+        finishing = true;
+    }
+
+    public boolean isFinishing() {
+        return finishing;
+    }
+
+    protected void onCreate(Bundle savedInstanceState) {
+    }
+
+    protected void onStart() {
+    }
+
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+    }
+
+    protected void onPause() {
+    }
+
+    protected void onStop() {
+    }
+
+    protected void onDestroy() {
+    }
+
+    protected void onSaveInstanceState(Bundle outState) {
+    }
+}
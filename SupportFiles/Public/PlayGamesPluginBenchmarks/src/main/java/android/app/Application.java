@@ -0,0 +1,46 @@
+package android.app;
+
+import android.content.Context;
+import android.os.Bundle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code android.app.Application}.
+ */
+public class Application extends Context {
+    private final List<ActivityLifecycleCallbacks> callbacks = new ArrayList<>();
+
+    public void registerActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback) {
+        synchronized (callbacks) {
+            callbacks.add(callback);
+        }
+    }
+
+    /** Delivers {@code onActivityDestroyed} to the registered callbacks. */
+    public void dispatchActivityDestroyed(Activity activity) {
+        List<ActivityLifecycleCallbacks> snapshot;
+        synchronized (callbacks) {
+            snapshot = new ArrayList<>(callbacks);
+        }
+        for (ActivityLifecycleCallbacks callback : snapshot) {
+            callback.onActivityDestroyed(activity);
+        }
+    }
+
+    public interface ActivityLifecycleCallbacks {
+        void onActivityCreated(Activity activity, Bundle savedInstanceState);
+
+        void onActivityStarted(Activity activity);
+
+        void onActivityResumed(Activity activity);
+
+        void onActivityPaused(Activity activity);
+
+        void onActivityStopped(Activity activity);
+
+        void onActivitySaveInstanceState(Activity activity, Bundle outState);
+
+        void onActivityDestroyed(Activity activity);
+    }
+}
@@ -0,0 +1,44 @@
+package android.app;
+
+import android.content.Intent;
+import android.content.IntentSender;
+import android.os.Bundle;
+
+/**
+ * JVM stand-in for {@code android.app.Fragment}.
+ */
+public class Fragment {
+    private Activity activity;
+    private boolean resumed;
+
+    public final Activity getActivity() {
+        return activity;
+    }
+
+    public final boolean isResumed() {
+        return resumed;
+    }
+
+    public void startActivityForResult(Intent intent, int requestCode) {
+    }
+
+    public void startIntentSenderForResult(IntentSender intent, int requestCode, Intent fillInIntent,
+            int flagsMask, int flagsValues, int extraFlags, Bundle options)
+            throws IntentSender.SendIntentException {
+    }
+
+    public void onActivityResult(int requestCode, int resultCode, Intent data) {
+    }
+
+    public void onResume() {
+    }
+
+    public void onDestroy() {
+    }
+
+    void attach(Activity activity) {
+        this.activity = activity;
+        this.resumed = true;
+        onResume();
+    }
+}
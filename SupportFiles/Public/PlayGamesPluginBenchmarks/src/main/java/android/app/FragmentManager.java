@@ -0,0 +1,29 @@
+package android.app;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for {@code android.app.FragmentManager}.
+ */
+public class FragmentManager {
+    private final Activity activity;
+    private final Map<String, Fragment> fragments = new HashMap<>();
+
+    FragmentManager(Activity activity) {
+        this.activity = activity;
+    }
+
+    public Fragment findFragmentByTag(String tag) {
+        return fragments.get(tag);
+    }
+
+    public FragmentTransaction beginTransaction() {
+        return new FragmentTransaction(this);
+    }
+
+    void add(Fragment fragment, String tag) {
+        fragments.put(tag, fragment);
+        fragment.attach(activity);
+    }
+}
@@ -0,0 +1,29 @@
+package android.app;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for {@code android.app.FragmentTransaction}. {@link #commit()}
+ * attaches and resumes the added fragments immediately.
+ */
+public class FragmentTransaction {
+    private final FragmentManager manager;
+    private final Map<String, Fragment> added = new LinkedHashMap<>();
+
+    FragmentTransaction(FragmentManager manager) {
+        this.manager = manager;
+    }
+
+    public FragmentTransaction add(Fragment fragment, String tag) {
+        added.put(tag, fragment);
+        return this;
+    }
+
+    public int commit() {
+        for (Map.Entry<String, Fragment> entry : added.entrySet()) {
+            manager.add(entry.getValue(), entry.getKey());
+        }
+        return 0;
+    }
+}
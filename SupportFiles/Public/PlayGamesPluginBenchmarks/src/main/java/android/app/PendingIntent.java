@@ -0,0 +1,14 @@
+package android.app;
+
+import android.content.IntentSender;
+
+/**
+ * JVM stand-in for {@code android.app.PendingIntent}.
+ */
+public final class PendingIntent {
+    private final IntentSender intentSender = new IntentSender();
+
+    public IntentSender getIntentSender() {
+        return intentSender;
+    }
+}
@@ -0,0 +1,13 @@
+package android.content;
+
+/**
+ * JVM stand-in for {@code android.content.ActivityNotFoundException}.
+ */
+public class ActivityNotFoundException extends RuntimeException {
+    public ActivityNotFoundException() {
+    }
+
+    public ActivityNotFoundException(String message) {
+        super(message);
+    }
+}
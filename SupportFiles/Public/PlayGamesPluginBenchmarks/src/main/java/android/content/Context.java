@@ -0,0 +1,16 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for {@code android.content.Context}. Files go to a directory
+ * under {@code java.io.tmpdir}.
+ */
+public class Context {
+
+    public File getFilesDir() {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "gpg-files");
+        dir.mkdirs();
+        return dir;
+    }
+}
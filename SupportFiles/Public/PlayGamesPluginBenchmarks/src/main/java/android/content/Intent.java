@@ -0,0 +1,27 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for {@code android.content.Intent}; extras are kept in a plain map.
+ */
+public class Intent {
+    private final Map<String, Object> extras = new HashMap<>();
+
+    public Intent() {
+    }
+
+    public Intent(Context packageContext, Class<?> cls) {
+    }
+
+    public Intent putExtra(String name, Object value) {
+        extras.put(name, value);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getParcelableExtra(String name) {
+        return (T) extras.get(name);
+    }
+}
@@ -0,0 +1,16 @@
+package android.content;
+
+/**
+ * JVM stand-in for {@code android.content.IntentSender}.
+ */
+public class IntentSender {
+
+    public static class SendIntentException extends Exception {
+        public SendIntentException() {
+        }
+
+        public SendIntentException(String message) {
+            super(message);
+        }
+    }
+}
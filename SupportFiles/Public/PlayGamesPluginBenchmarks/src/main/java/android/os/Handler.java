@@ -0,0 +1,21 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.Handler}. Posted runnables run inline.
+ */
+public class Handler {
+    private final Looper looper;
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        runnable.run();
+        return true;
+    }
+}
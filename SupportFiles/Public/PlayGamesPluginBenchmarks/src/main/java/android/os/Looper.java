@@ -0,0 +1,31 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.Looper}. Only the main looper is
+ * modelled; it belongs to the thread that called {@link #prepareMainLooper()}.
+ */
+public final class Looper {
+    private static Looper mainLooper;
+
+    private final Thread thread;
+
+    private Looper(Thread thread) {
+        this.thread = thread;
+    }
+
+    public static synchronized void prepareMainLooper() {
+        mainLooper = new Looper(Thread.currentThread());
+    }
+
+    public static synchronized Looper getMainLooper() {
+        return mainLooper;
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    public boolean isCurrentThread() {
+        return thread == Thread.currentThread();
+    }
+}
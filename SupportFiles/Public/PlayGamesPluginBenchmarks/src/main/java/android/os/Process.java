@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.Process}.
+ */
+public class Process {
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+
+    private static final long START_UPTIME_MILLIS = SystemClock.uptimeMillis();
+
+    public static long getStartUptimeMillis() {
+        return START_UPTIME_MILLIS;
+    }
+
+    public static void setThreadPriority(int priority) {
+    }
+}
@@ -0,0 +1,45 @@
+package android.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code android.view.Choreographer}. Frames are produced by
+ * calling {@link #dispatchFrame(long)}.
+ */
+public final class Choreographer {
+    private static final Choreographer instance = new Choreographer();
+
+    private final List<FrameCallback> callbacks = new ArrayList<>();
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    private Choreographer() {
+    }
+
+    public static Choreographer getInstance() {
+        return instance;
+    }
+
+    public synchronized void postFrameCallback(FrameCallback callback) {
+        callbacks.add(callback);
+    }
+
+    public synchronized void removeFrameCallback(FrameCallback callback) {
+        callbacks.remove(callback);
+    }
+
+    /** Runs the callbacks posted for the next frame. */
+    public void dispatchFrame(long frameTimeNanos) {
+        List<FrameCallback> due;
+        synchronized (this) {
+            due = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (FrameCallback callback : due) {
+            callback.doFrame(frameTimeNanos);
+        }
+    }
+}
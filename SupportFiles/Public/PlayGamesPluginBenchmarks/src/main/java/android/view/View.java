@@ -0,0 +1,23 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * JVM stand-in for {@code android.view.View}.
+ */
+public class View {
+    public static final int VISIBLE = 0;
+    public static final int INVISIBLE = 4;
+
+    public View(Context context) {
+    }
+
+    public void setVisibility(int visibility) {
+    }
+
+    public void setClickable(boolean clickable) {
+    }
+
+    public void setBackgroundColor(int color) {
+    }
+}
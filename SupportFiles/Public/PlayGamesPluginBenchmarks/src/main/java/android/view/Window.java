@@ -0,0 +1,18 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * JVM stand-in for {@code android.view.Window}.
+ */
+public class Window {
+    private final View decorView;
+
+    public Window(Context context) {
+        decorView = new View(context);
+    }
+
+    public View getDecorView() {
+        return decorView;
+    }
+}
@@ -0,0 +1,17 @@
+package com.google.android.gms.common.api;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.common.api.ApiException}.
+ */
+public class ApiException extends Exception {
+    private final Status status;
+
+    public ApiException(Status status) {
+        super(status.getStatusCode() + ": ");
+        this.status = status;
+    }
+
+    public int getStatusCode() {
+        return status.getStatusCode();
+    }
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.common.api;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.common.api.CommonStatusCodes}.
+ */
+public class CommonStatusCodes {
+    public static final int SUCCESS = 0;
+    public static final int NETWORK_ERROR = 7;
+    public static final int INTERNAL_ERROR = 8;
+
+    protected CommonStatusCodes() {
+    }
+}
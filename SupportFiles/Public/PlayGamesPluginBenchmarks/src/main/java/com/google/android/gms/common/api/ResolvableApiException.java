@@ -0,0 +1,18 @@
+package com.google.android.gms.common.api;
+
+import android.app.PendingIntent;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.common.api.ResolvableApiException}.
+ */
+public class ResolvableApiException extends ApiException {
+    private final PendingIntent resolution = new PendingIntent();
+
+    public ResolvableApiException(Status status) {
+        super(status);
+    }
+
+    public PendingIntent getResolution() {
+        return resolution;
+    }
+}
@@ -0,0 +1,20 @@
+package com.google.android.gms.common.api;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.common.api.Status}.
+ */
+public final class Status {
+    private final int statusCode;
+
+    public Status(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccess() {
+        return statusCode <= 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.google.android.gms.games;
+
+import android.content.Intent;
+import com.google.android.gms.games.achievement.AchievementBuffer;
+import com.google.android.gms.tasks.Task;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.AchievementsClient}.
+ */
+public interface AchievementsClient {
+    Task<Intent> getAchievementsIntent();
+
+    Task<AnnotatedData<AchievementBuffer>> load(boolean forceReload);
+
+    void unlock(String id);
+
+    void reveal(String id);
+
+    Task<Void> unlockImmediate(String id);
+
+    void increment(String id, int numSteps);
+
+    Task<Boolean> incrementImmediate(String id, int numSteps);
+
+    void setSteps(String id, int numSteps);
+}
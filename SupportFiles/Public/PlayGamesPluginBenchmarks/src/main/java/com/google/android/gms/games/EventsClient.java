@@ -0,0 +1,8 @@
+package com.google.android.gms.games;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.EventsClient}.
+ */
+public interface EventsClient {
+    void increment(String eventId, int incrementAmount);
+}
@@ -0,0 +1,11 @@
+package com.google.android.gms.games;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.GamesActivityResultCodes}.
+ */
+public final class GamesActivityResultCodes {
+    public static final int RESULT_RECONNECT_REQUIRED = 10001;
+
+    private GamesActivityResultCodes() {
+    }
+}
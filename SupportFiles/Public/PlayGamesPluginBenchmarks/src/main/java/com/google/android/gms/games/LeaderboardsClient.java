@@ -0,0 +1,18 @@
+package com.google.android.gms.games;
+
+import android.content.Intent;
+import com.google.android.gms.games.leaderboard.ScoreSubmissionData;
+import com.google.android.gms.tasks.Task;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.LeaderboardsClient}.
+ */
+public interface LeaderboardsClient {
+    Task<Intent> getAllLeaderboardsIntent();
+
+    Task<Intent> getLeaderboardIntent(String leaderboardId, int timeSpan);
+
+    void submitScore(String leaderboardId, long score);
+
+    Task<ScoreSubmissionData> submitScoreImmediate(String leaderboardId, long score);
+}
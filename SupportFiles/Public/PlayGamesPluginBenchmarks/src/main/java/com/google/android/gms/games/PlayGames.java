@@ -0,0 +1,155 @@
+package com.google.android.gms.games;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+import com.google.android.gms.games.achievement.Achievement;
+import com.google.android.gms.games.achievement.AchievementBuffer;
+import com.google.android.gms.games.leaderboard.ScoreSubmissionData;
+import com.google.android.gms.games.snapshot.Snapshot;
+import com.google.android.gms.games.snapshot.SnapshotMetadata;
+import com.google.android.gms.games.snapshot.SnapshotMetadataChange;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.util.Collections;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.PlayGames}. Every client
+ * returns an already completed task so that the bridge logic is all that is
+ * measured.
+ */
+public final class PlayGames {
+
+    private PlayGames() {
+    }
+
+    public static AchievementsClient getAchievementsClient(Activity activity) {
+        return new AchievementsClient() {
+            @Override
+            public Task<Intent> getAchievementsIntent() {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<AnnotatedData<AchievementBuffer>> load(boolean forceReload) {
+                return Tasks.forResult(new AnnotatedData<>(
+                        new AchievementBuffer(Collections.<Achievement>emptyList()), false));
+            }
+
+            @Override
+            public void unlock(String id) {
+            }
+
+            @Override
+            public Task<Void> unlockImmediate(String id) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public void reveal(String id) {
+            }
+
+            @Override
+            public void increment(String id, int numSteps) {
+            }
+
+            @Override
+            public Task<Boolean> incrementImmediate(String id, int numSteps) {
+                return Tasks.forResult(false);
+            }
+
+            @Override
+            public void setSteps(String id, int numSteps) {
+            }
+        };
+    }
+
+    public static LeaderboardsClient getLeaderboardsClient(Activity activity) {
+        return new LeaderboardsClient() {
+            @Override
+            public Task<Intent> getAllLeaderboardsIntent() {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<Intent> getLeaderboardIntent(String leaderboardId, int timeSpan) {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public void submitScore(String leaderboardId, long score) {
+            }
+
+            @Override
+            public Task<ScoreSubmissionData> submitScoreImmediate(String leaderboardId, long score) {
+                return Tasks.forResult(new ScoreSubmissionData(leaderboardId, "player", score, true));
+            }
+        };
+    }
+
+    public static PlayersClient getPlayersClient(Activity activity) {
+        return new PlayersClient() {
+            @Override
+            public Task<Intent> getCompareProfileIntentWithAlternativeNameHints(
+                    String otherPlayerId, String otherPlayerInGameName, String currentPlayerInGameName) {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<AnnotatedData<PlayerBuffer>> loadFriends(int pageSize, boolean forceReload) {
+                return Tasks.forResult(new AnnotatedData<>(
+                        new PlayerBuffer(Collections.<Player>emptyList(), new Bundle()), false));
+            }
+
+            @Override
+            public Task<AnnotatedData<PlayerBuffer>> loadMoreFriends(int pageSize) {
+                return loadFriends(pageSize, false);
+            }
+        };
+    }
+
+    public static SnapshotsClient getSnapshotsClient(Activity activity) {
+        return new SnapshotsClient() {
+            @Override
+            public Task<Intent> getSelectSnapshotIntent(String title, boolean allowAddButton,
+                    boolean allowDelete, int maxSnapshots) {
+                return Tasks.forResult(new Intent());
+            }
+
+            @Override
+            public Task<DataOrConflict<Snapshot>> open(String fileName, boolean createIfNotFound,
+                    int conflictPolicy) {
+                return Tasks.forException(new UnsupportedOperationException("Snapshots are not stubbed"));
+            }
+
+            @Override
+            public Task<SnapshotMetadata> commitAndClose(Snapshot snapshot,
+                    SnapshotMetadataChange metadataChange) {
+                return Tasks.forResult(snapshot.getMetadata());
+            }
+
+            @Override
+            public Task<String> delete(SnapshotMetadata metadata) {
+                return Tasks.forResult(metadata.getUniqueName());
+            }
+        };
+    }
+
+    public static EventsClient getEventsClient(Activity activity) {
+        return new EventsClient() {
+            @Override
+            public void increment(String eventId, int incrementAmount) {
+            }
+        };
+    }
+
+    public static PlayerStatsClient getPlayerStatsClient(Activity activity) {
+        return new PlayerStatsClient() {
+        };
+    }
+
+    public static GameStatsClient getGameStatsClient(Activity activity) {
+        return new GameStatsClient() {
+        };
+    }
+}
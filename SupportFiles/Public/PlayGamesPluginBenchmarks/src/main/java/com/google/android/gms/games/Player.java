@@ -0,0 +1,14 @@
+package com.google.android.gms.games;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.Player}.
+ */
+public interface Player {
+    String getDisplayName();
+
+    String getPlayerId();
+
+    String getIconImageUrl();
+
+    PlayerRelationshipInfo getRelationshipInfo();
+}
@@ -0,0 +1,37 @@
+package com.google.android.gms.games;
+
+import android.os.Bundle;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.PlayerBuffer}.
+ */
+public final class PlayerBuffer {
+    private final List<Player> players;
+    private final Bundle metadata;
+    private boolean released;
+
+    public PlayerBuffer(List<Player> players, Bundle metadata) {
+        this.players = players;
+        this.metadata = metadata;
+    }
+
+    public int getCount() {
+        return released ? 0 : players.size();
+    }
+
+    public Player get(int position) {
+        if (released) {
+            throw new IllegalStateException("Buffer was released");
+        }
+        return players.get(position);
+    }
+
+    public Bundle getMetadata() {
+        return metadata;
+    }
+
+    public void release() {
+        released = true;
+    }
+}
@@ -0,0 +1,7 @@
+package com.google.android.gms.games;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.PlayerStatsClient}.
+ */
+public interface PlayerStatsClient {
+}
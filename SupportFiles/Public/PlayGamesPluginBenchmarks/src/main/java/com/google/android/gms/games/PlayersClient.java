@@ -0,0 +1,16 @@
+package com.google.android.gms.games;
+
+import android.content.Intent;
+import com.google.android.gms.tasks.Task;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.PlayersClient}.
+ */
+public interface PlayersClient {
+    Task<Intent> getCompareProfileIntentWithAlternativeNameHints(
+            String otherPlayerId, String otherPlayerInGameName, String currentPlayerInGameName);
+
+    Task<AnnotatedData<PlayerBuffer>> loadFriends(int pageSize, boolean forceReload);
+
+    Task<AnnotatedData<PlayerBuffer>> loadMoreFriends(int pageSize);
+}
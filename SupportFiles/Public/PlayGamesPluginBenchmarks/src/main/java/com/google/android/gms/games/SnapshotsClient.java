@@ -0,0 +1,43 @@
+package com.google.android.gms.games;
+
+import android.content.Intent;
+import com.google.android.gms.games.snapshot.Snapshot;
+import com.google.android.gms.games.snapshot.SnapshotMetadata;
+import com.google.android.gms.games.snapshot.SnapshotMetadataChange;
+import com.google.android.gms.tasks.Task;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.SnapshotsClient}.
+ */
+public interface SnapshotsClient {
+    String EXTRA_SNAPSHOT_METADATA = "com.google.android.gms.games.SNAPSHOT_METADATA";
+
+    int RESOLUTION_POLICY_MANUAL = -1;
+    int RESOLUTION_POLICY_MOST_RECENTLY_MODIFIED = 3;
+
+    /** JVM stand-in for {@code SnapshotsClient.DataOrConflict}; conflicts are not modelled. */
+    final class DataOrConflict<T> {
+        private final T data;
+
+        public DataOrConflict(T data) {
+            this.data = data;
+        }
+
+        public boolean isConflict() {
+            return false;
+        }
+
+        public T getData() {
+            return data;
+        }
+    }
+
+    Task<Intent> getSelectSnapshotIntent(String title, boolean allowAddButton, boolean allowDelete,
+            int maxSnapshots);
+
+    Task<DataOrConflict<Snapshot>> open(String fileName, boolean createIfNotFound, int conflictPolicy);
+
+    Task<SnapshotMetadata> commitAndClose(Snapshot snapshot, SnapshotMetadataChange metadataChange);
+
+    Task<String> delete(SnapshotMetadata metadata);
+}
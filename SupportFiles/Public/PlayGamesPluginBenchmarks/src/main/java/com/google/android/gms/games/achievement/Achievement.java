@@ -0,0 +1,35 @@
+package com.google.android.gms.games.achievement;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.achievement.Achievement}.
+ */
+public interface Achievement {
+    int STATE_UNLOCKED = 0;
+    int STATE_REVEALED = 1;
+    int STATE_HIDDEN = 2;
+
+    int TYPE_STANDARD = 0;
+    int TYPE_INCREMENTAL = 1;
+
+    String getAchievementId();
+
+    String getName();
+
+    String getDescription();
+
+    int getType();
+
+    int getState();
+
+    int getCurrentSteps();
+
+    int getTotalSteps();
+
+    long getLastUpdatedTimestamp();
+
+    long getXpValue();
+
+    String getRevealedImageUrl();
+
+    String getUnlockedImageUrl();
+}
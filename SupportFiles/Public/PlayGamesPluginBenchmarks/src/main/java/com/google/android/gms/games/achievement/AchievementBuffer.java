@@ -0,0 +1,30 @@
+package com.google.android.gms.games.achievement;
+
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.achievement.AchievementBuffer}.
+ */
+public final class AchievementBuffer {
+    private final List<Achievement> achievements;
+    private boolean released;
+
+    public AchievementBuffer(List<Achievement> achievements) {
+        this.achievements = achievements;
+    }
+
+    public int getCount() {
+        return released ? 0 : achievements.size();
+    }
+
+    public Achievement get(int position) {
+        if (released) {
+            throw new IllegalStateException("Buffer was released");
+        }
+        return achievements.get(position);
+    }
+
+    public void release() {
+        released = true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.google.android.gms.games.leaderboard;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.leaderboard.ScoreSubmissionData};
+ * only the all-time result is modelled.
+ */
+public final class ScoreSubmissionData {
+    private final String leaderboardId;
+    private final String playerId;
+    private final long bestScore;
+    private final boolean newBest;
+
+    public ScoreSubmissionData(String leaderboardId, String playerId, long bestScore, boolean newBest) {
+        this.leaderboardId = leaderboardId;
+        this.playerId = playerId;
+        this.bestScore = bestScore;
+        this.newBest = newBest;
+    }
+
+    public String getLeaderboardId() {
+        return leaderboardId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public long getBestScore() {
+        return bestScore;
+    }
+
+    public boolean isNewBest() {
+        return newBest;
+    }
+}
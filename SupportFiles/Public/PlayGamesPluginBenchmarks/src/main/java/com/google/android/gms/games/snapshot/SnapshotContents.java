@@ -0,0 +1,10 @@
+package com.google.android.gms.games.snapshot;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.snapshot.SnapshotContents}.
+ */
+public interface SnapshotContents {
+    byte[] readFully();
+
+    boolean writeBytes(byte[] content);
+}
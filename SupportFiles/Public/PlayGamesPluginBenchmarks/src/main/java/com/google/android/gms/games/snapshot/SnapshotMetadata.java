@@ -0,0 +1,14 @@
+package com.google.android.gms.games.snapshot;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.snapshot.SnapshotMetadata}.
+ */
+public interface SnapshotMetadata {
+    String getUniqueName();
+
+    String getDescription();
+
+    long getLastModifiedTimestamp();
+
+    long getPlayedTime();
+}
@@ -0,0 +1,44 @@
+package com.google.android.gms.games.snapshot;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.games.snapshot.SnapshotMetadataChange}.
+ */
+public final class SnapshotMetadataChange {
+    public static final SnapshotMetadataChange EMPTY_CHANGE = new SnapshotMetadataChange(null, null);
+
+    private final String description;
+    private final Long playedTimeMillis;
+
+    private SnapshotMetadataChange(String description, Long playedTimeMillis) {
+        this.description = description;
+        this.playedTimeMillis = playedTimeMillis;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Long getPlayedTimeMillis() {
+        return playedTimeMillis;
+    }
+
+    /** JVM stand-in for {@code SnapshotMetadataChange.Builder}. */
+    public static final class Builder {
+        private String description;
+        private Long playedTimeMillis;
+
+        public Builder setDescription(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder setPlayedTimeMillis(long playedTimeMillis) {
+            this.playedTimeMillis = playedTimeMillis;
+            return this;
+        }
+
+        public SnapshotMetadataChange build() {
+            return new SnapshotMetadataChange(description, playedTimeMillis);
+        }
+    }
+}
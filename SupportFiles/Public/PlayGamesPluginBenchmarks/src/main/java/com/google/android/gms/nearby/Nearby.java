@@ -0,0 +1,54 @@
+package com.google.android.gms.nearby;
+
+import android.app.Activity;
+import com.google.android.gms.nearby.connection.ConnectionLifecycleCallback;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.nearby.connection.PayloadCallback;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.Nearby}. The client
+ * completes every call without connecting anywhere.
+ */
+public final class Nearby {
+
+    private Nearby() {
+    }
+
+    public static ConnectionsClient getConnectionsClient(Activity activity) {
+        return new ConnectionsClient() {
+            @Override
+            public Task<Void> requestConnection(String name, String endpointId,
+                    ConnectionLifecycleCallback callback) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> acceptConnection(String endpointId, PayloadCallback callback) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> rejectConnection(String endpointId) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> sendPayload(String endpointId, Payload payload) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public Task<Void> sendPayload(List<String> endpointIds, Payload payload) {
+                return Tasks.forResult(null);
+            }
+
+            @Override
+            public void disconnectFromEndpoint(String endpointId) {
+            }
+        };
+    }
+}
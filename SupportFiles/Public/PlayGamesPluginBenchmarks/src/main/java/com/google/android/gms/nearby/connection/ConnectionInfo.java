@@ -0,0 +1,22 @@
+package com.google.android.gms.nearby.connection;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.ConnectionInfo}.
+ */
+public final class ConnectionInfo {
+    private final String endpointName;
+    private final boolean incomingConnection;
+
+    public ConnectionInfo(String endpointName, boolean incomingConnection) {
+        this.endpointName = endpointName;
+        this.incomingConnection = incomingConnection;
+    }
+
+    public String getEndpointName() {
+        return endpointName;
+    }
+
+    public boolean isIncomingConnection() {
+        return incomingConnection;
+    }
+}
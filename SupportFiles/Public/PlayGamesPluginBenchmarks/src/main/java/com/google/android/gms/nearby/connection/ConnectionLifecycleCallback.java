@@ -0,0 +1,12 @@
+package com.google.android.gms.nearby.connection;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.ConnectionLifecycleCallback}.
+ */
+public abstract class ConnectionLifecycleCallback {
+    public abstract void onConnectionInitiated(String endpointId, ConnectionInfo connectionInfo);
+
+    public abstract void onConnectionResult(String endpointId, ConnectionResolution resolution);
+
+    public abstract void onDisconnected(String endpointId);
+}
@@ -0,0 +1,18 @@
+package com.google.android.gms.nearby.connection;
+
+import com.google.android.gms.common.api.Status;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.ConnectionResolution}.
+ */
+public final class ConnectionResolution {
+    private final Status status;
+
+    public ConnectionResolution(Status status) {
+        this.status = status;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,21 @@
+package com.google.android.gms.nearby.connection;
+
+import com.google.android.gms.tasks.Task;
+import java.util.List;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.ConnectionsClient}.
+ */
+public interface ConnectionsClient {
+    Task<Void> requestConnection(String name, String endpointId, ConnectionLifecycleCallback callback);
+
+    Task<Void> acceptConnection(String endpointId, PayloadCallback callback);
+
+    Task<Void> rejectConnection(String endpointId);
+
+    Task<Void> sendPayload(String endpointId, Payload payload);
+
+    Task<Void> sendPayload(List<String> endpointIds, Payload payload);
+
+    void disconnectFromEndpoint(String endpointId);
+}
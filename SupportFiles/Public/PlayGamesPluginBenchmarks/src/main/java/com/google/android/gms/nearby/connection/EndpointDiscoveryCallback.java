@@ -0,0 +1,10 @@
+package com.google.android.gms.nearby.connection;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.EndpointDiscoveryCallback}.
+ */
+public abstract class EndpointDiscoveryCallback {
+    public abstract void onEndpointFound(String endpointId, DiscoveredEndpointInfo info);
+
+    public abstract void onEndpointLost(String endpointId);
+}
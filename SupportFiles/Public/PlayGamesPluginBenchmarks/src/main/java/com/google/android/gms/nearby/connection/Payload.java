@@ -0,0 +1,40 @@
+package com.google.android.gms.nearby.connection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.Payload};
+ * only byte payloads are modelled.
+ */
+public final class Payload {
+    /** JVM stand-in for {@code Payload.Type}. */
+    public @interface Type {
+        int BYTES = 1;
+    }
+
+    private static final AtomicLong nextId = new AtomicLong(1);
+
+    private final long id;
+    private final byte[] bytes;
+
+    private Payload(long id, byte[] bytes) {
+        this.id = id;
+        this.bytes = bytes;
+    }
+
+    public static Payload fromBytes(byte[] bytes) {
+        return new Payload(nextId.getAndIncrement(), bytes);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getType() {
+        return Type.BYTES;
+    }
+
+    public byte[] asBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,10 @@
+package com.google.android.gms.nearby.connection;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.PayloadCallback}.
+ */
+public abstract class PayloadCallback {
+    public abstract void onPayloadReceived(String endpointId, Payload payload);
+
+    public abstract void onPayloadTransferUpdate(String endpointId, PayloadTransferUpdate update);
+}
@@ -0,0 +1,45 @@
+package com.google.android.gms.nearby.connection;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.nearby.connection.PayloadTransferUpdate}.
+ */
+public final class PayloadTransferUpdate {
+
+    public static final class Status {
+        public static final int SUCCESS = 1;
+        public static final int FAILURE = 2;
+        public static final int IN_PROGRESS = 3;
+        public static final int CANCELED = 4;
+
+        private Status() {
+        }
+    }
+
+    private final long payloadId;
+    private final int status;
+    private final long totalBytes;
+    private final long bytesTransferred;
+
+    public PayloadTransferUpdate(long payloadId, int status, long totalBytes, long bytesTransferred) {
+        this.payloadId = payloadId;
+        this.status = status;
+        this.totalBytes = totalBytes;
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    public long getPayloadId() {
+        return payloadId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+}
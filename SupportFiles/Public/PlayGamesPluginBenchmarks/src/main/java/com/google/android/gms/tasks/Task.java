@@ -0,0 +1,144 @@
+package com.google.android.gms.tasks;
+
+import android.app.Activity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.tasks.Task}. Listeners run on
+ * the thread that completes the task, or inline when the task is already
+ * complete.
+ */
+public class Task<TResult> {
+    private final Object lock = new Object();
+    private final List<OnSuccessListener<? super TResult>> successListeners = new ArrayList<>(1);
+    private final List<OnFailureListener> failureListeners = new ArrayList<>(1);
+    private boolean complete;
+    private TResult result;
+    private Exception exception;
+
+    Task() {
+    }
+
+    public boolean isComplete() {
+        synchronized (lock) {
+            return complete;
+        }
+    }
+
+    public boolean isSuccessful() {
+        synchronized (lock) {
+            return complete && exception == null;
+        }
+    }
+
+    public TResult getResult() {
+        synchronized (lock) {
+            if (!complete) {
+                throw new IllegalStateException("Task is not yet complete");
+            }
+            if (exception != null) {
+                throw new RuntimeException(exception);
+            }
+            return result;
+        }
+    }
+
+    public Exception getException() {
+        synchronized (lock) {
+            return exception;
+        }
+    }
+
+    public Task<TResult> addOnSuccessListener(OnSuccessListener<? super TResult> listener) {
+        boolean runNow;
+        synchronized (lock) {
+            runNow = complete;
+            if (!runNow) {
+                successListeners.add(listener);
+            }
+        }
+        if (runNow && exception == null) {
+            listener.onSuccess(result);
+        }
+        return this;
+    }
+
+    public Task<TResult> addOnSuccessListener(Activity activity, OnSuccessListener<? super TResult> listener) {
+        return addOnSuccessListener(listener);
+    }
+
+    public Task<TResult> addOnSuccessListener(
+            final Executor executor, final OnSuccessListener<? super TResult> listener) {
+        return addOnSuccessListener(new OnSuccessListener<TResult>() {
+            @Override
+            public void onSuccess(final TResult result) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSuccess(result);
+                    }
+                });
+            }
+        });
+    }
+
+    public Task<TResult> addOnFailureListener(OnFailureListener listener) {
+        boolean runNow;
+        synchronized (lock) {
+            runNow = complete;
+            if (!runNow) {
+                failureListeners.add(listener);
+            }
+        }
+        if (runNow && exception != null) {
+            listener.onFailure(exception);
+        }
+        return this;
+    }
+
+    public Task<TResult> addOnFailureListener(Activity activity, OnFailureListener listener) {
+        return addOnFailureListener(listener);
+    }
+
+    public Task<TResult> addOnFailureListener(final Executor executor, final OnFailureListener listener) {
+        return addOnFailureListener(new OnFailureListener() {
+            @Override
+            public void onFailure(final Exception e) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFailure(e);
+                    }
+                });
+            }
+        });
+    }
+
+    void complete(TResult result, Exception exception) {
+        List<OnSuccessListener<? super TResult>> successes;
+        List<OnFailureListener> failures;
+        synchronized (lock) {
+            if (complete) {
+                throw new IllegalStateException("Task is already complete");
+            }
+            this.complete = true;
+            this.result = result;
+            this.exception = exception;
+            successes = new ArrayList<>(successListeners);
+            failures = new ArrayList<>(failureListeners);
+            successListeners.clear();
+            failureListeners.clear();
+        }
+        if (exception == null) {
+            for (OnSuccessListener<? super TResult> listener : successes) {
+                listener.onSuccess(result);
+            }
+        } else {
+            for (OnFailureListener listener : failures) {
+                listener.onFailure(exception);
+            }
+        }
+    }
+}
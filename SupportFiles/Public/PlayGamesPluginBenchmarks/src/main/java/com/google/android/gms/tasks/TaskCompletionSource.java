@@ -0,0 +1,20 @@
+package com.google.android.gms.tasks;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.tasks.TaskCompletionSource}.
+ */
+public class TaskCompletionSource<TResult> {
+    private final Task<TResult> task = new Task<>();
+
+    public Task<TResult> getTask() {
+        return task;
+    }
+
+    public void setResult(TResult result) {
+        task.complete(result, null);
+    }
+
+    public void setException(Exception e) {
+        task.complete(null, e);
+    }
+}
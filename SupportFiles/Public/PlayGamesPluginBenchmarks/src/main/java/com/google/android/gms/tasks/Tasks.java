@@ -0,0 +1,22 @@
+package com.google.android.gms.tasks;
+
+/**
+ * JVM stand-in for {@code com.google.android.gms.tasks.Tasks}.
+ */
+public final class Tasks {
+
+    private Tasks() {
+    }
+
+    public static <TResult> Task<TResult> forResult(TResult result) {
+        TaskCompletionSource<TResult> source = new TaskCompletionSource<>();
+        source.setResult(result);
+        return source.getTask();
+    }
+
+    public static <TResult> Task<TResult> forException(Exception e) {
+        TaskCompletionSource<TResult> source = new TaskCompletionSource<>();
+        source.setException(e);
+        return source.getTask();
+    }
+}
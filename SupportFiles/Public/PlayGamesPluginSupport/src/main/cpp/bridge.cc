@@ -19,3 +19,10 @@ JNIEXPORT void JNICALL Java_com_google_games_bridge_NativeBridgeActivity_forward
     gpg::AndroidSupport::OnActivityResult(env, activity, request_code, result_code, result);
     LOGD("Forwarding OnActivityResult Finished");
 }
+
+JNIEXPORT void JNICALL Java_com_google_games_bridge_NativeBridgeActivity_forwardActivityResultFor
+  (JNIEnv * env, jclass clazz, jobject activity, jint request_code, jint result_code, jobject result) {
+    LOGD("Forwarding OnActivityResult from helper fragment");
+    gpg::AndroidSupport::OnActivityResult(env, activity, request_code, result_code, result);
+    LOGD("Forwarding OnActivityResult Finished");
+}
@@ -69,6 +69,14 @@ extern "C" {
 JNIEXPORT void JNICALL Java_com_google_games_bridge_NativeBridgeActivity_forwardActivityResult
   (JNIEnv *, jobject, jint, jint, jobject);
 
+/*
+ * Class:     com_google_games_bridge_NativeBridgeActivity
+ * Method:    forwardActivityResultFor
+ * Signature: (Landroid/app/Activity;IILandroid/content/Intent;)V
+ */
+JNIEXPORT void JNICALL Java_com_google_games_bridge_NativeBridgeActivity_forwardActivityResultFor
+  (JNIEnv *, jclass, jobject, jint, jint, jobject);
+
 #ifdef __cplusplus
 }
 #endif
@@ -0,0 +1,694 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.util.Log;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
+import com.google.android.gms.games.AchievementsClient;
+import com.google.android.gms.games.AnnotatedData;
+import com.google.android.gms.games.achievement.Achievement;
+import com.google.android.gms.games.achievement.AchievementBuffer;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent copy of the signed-in player's achievements, so that they can
+ * be read without waiting for {@link AchievementsClient#load(boolean)}.
+ *
+ * <p>{@link #start()} reads the copy saved by the previous session and then
+ * reconciles it with {@code load(true)}, both in the background. Unlocks, reveals
+ * and increments made through the mirror are applied to the copy right away
+ * and passed on to the client; such an entry stays pending until the loaded
+ * state has caught up with it, and until then the loaded state cannot undo
+ * it. Entries without local changes take whatever the service returns, as do
+ * pending ones that {@link #MAX_UNCONFIRMED_LOADS} fresh loads in a row did
+ * not confirm, since their change was most likely lost. A change to an
+ * achievement that is not mirrored yet is held until its definition arrives,
+ * from disk or a load, and then applied to it.
+ *
+ * <p>The copy is saved off the calling thread after every change, as a
+ * versioned binary file with a CRC32 of its contents. A file that fails the
+ * check or belongs to another player is ignored.
+ */
+public class AchievementMirror {
+    private static final String TAG = "AchievementMirror";
+
+    private static final int FILE_MAGIC = 0x47504741; // "GPGA"
+    private static final int FILE_VERSION = 1;
+    // Magic, version, payload length and CRC32.
+    private static final int FILE_HEADER_SIZE = 13;
+    private static final int MAX_PAYLOAD_SIZE = 4 * 1024 * 1024;
+    static final long RECONCILE_MIN_INTERVAL_MILLIS = 60_000;
+    static final int MAX_UNCONFIRMED_LOADS = 3;
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static Executor mirrorExecutor;
+
+    /** Changes made to an achievement before it was mirrored. */
+    private static final class PendingChange {
+        // Achievement states order as unlocked < revealed < hidden.
+        int state = Achievement.STATE_HIDDEN;
+        long incrementSteps;
+        int minSteps;
+
+        /** Returns {@code entry} with this change applied. */
+        Entry applyTo(Entry entry) {
+            int newState = Math.min(entry.state, state);
+            int newSteps = entry.currentSteps;
+            if (entry.isIncremental()) {
+                newSteps = (int) Math.min(Math.max(entry.currentSteps + incrementSteps, minSteps), entry.totalSteps);
+                if (newSteps >= entry.totalSteps) {
+                    newState = Achievement.STATE_UNLOCKED;
+                }
+                if (newState == Achievement.STATE_UNLOCKED) {
+                    newSteps = entry.totalSteps;
+                }
+            }
+            if (newState == entry.state && newSteps == entry.currentSteps) {
+                return entry;
+            }
+            return entry.withProgress(newState, newSteps, System.currentTimeMillis());
+        }
+    }
+
+    /** One achievement's definition and the player's state. */
+    public static final class Entry {
+        public final String id;
+        public final String name;
+        public final String description;
+        public final int type;
+        public final int state;
+        public final int currentSteps;
+        public final int totalSteps;
+        public final long xpValue;
+        public final long lastUpdatedTimestamp;
+        public final String revealedImageUrl;
+        public final String unlockedImageUrl;
+        // Changed locally and not yet confirmed by a load.
+        public final boolean pending;
+        // Fresh loads since the local change that did not show it yet.
+        final int unconfirmedLoads;
+
+        Entry(String id, String name, String description, int type, int state, int currentSteps,
+                int totalSteps, long xpValue, long lastUpdatedTimestamp, String revealedImageUrl,
+                String unlockedImageUrl, boolean pending, int unconfirmedLoads) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.type = type;
+            this.state = state;
+            this.currentSteps = currentSteps;
+            this.totalSteps = totalSteps;
+            this.xpValue = xpValue;
+            this.lastUpdatedTimestamp = lastUpdatedTimestamp;
+            this.revealedImageUrl = revealedImageUrl;
+            this.unlockedImageUrl = unlockedImageUrl;
+            this.pending = pending;
+            this.unconfirmedLoads = unconfirmedLoads;
+        }
+
+        Entry(Achievement achievement) {
+            this(achievement.getAchievementId(), achievement.getName(), achievement.getDescription(),
+                    achievement.getType(), achievement.getState(),
+                    achievement.getType() == Achievement.TYPE_INCREMENTAL ? achievement.getCurrentSteps() : 0,
+                    achievement.getType() == Achievement.TYPE_INCREMENTAL ? achievement.getTotalSteps() : 0,
+                    achievement.getXpValue(), achievement.getLastUpdatedTimestamp(),
+                    achievement.getRevealedImageUrl(), achievement.getUnlockedImageUrl(), false, 0);
+        }
+
+        boolean isIncremental() {
+            return type == Achievement.TYPE_INCREMENTAL;
+        }
+
+        Entry withProgress(int newState, int newSteps, long timestamp) {
+            return new Entry(id, name, description, type, newState, newSteps, totalSteps, xpValue, timestamp,
+                    revealedImageUrl, unlockedImageUrl, true, 0);
+        }
+
+        /**
+         * Merges a loaded entry into this one. Local progress that the loaded
+         * state does not show yet is kept, and the entry stays pending.
+         */
+        Entry mergeLoaded(Entry loaded, boolean stale) {
+            if (!pending) {
+                return loaded;
+            }
+            // Achievement states order as unlocked < revealed < hidden.
+            int mergedState = Math.min(state, loaded.state);
+            int mergedSteps = Math.max(currentSteps, loaded.currentSteps);
+            boolean stillPending = state < loaded.state || currentSteps > loaded.currentSteps;
+            if (!stillPending) {
+                return loaded;
+            }
+            int loads = stale ? unconfirmedLoads : unconfirmedLoads + 1;
+            if (loads >= MAX_UNCONFIRMED_LOADS) {
+                Log.w(TAG, "Dropping unconfirmed local progress of " + id);
+                return loaded;
+            }
+            return new Entry(loaded.id, loaded.name, loaded.description, loaded.type, mergedState,
+                    Math.min(mergedSteps, loaded.totalSteps), loaded.totalSteps, loaded.xpValue,
+                    lastUpdatedTimestamp, loaded.revealedImageUrl, loaded.unlockedImageUrl, true, loads);
+        }
+
+        boolean sameAs(Entry other) {
+            return state == other.state && currentSteps == other.currentSteps && totalSteps == other.totalSteps
+                    && type == other.type && xpValue == other.xpValue && pending == other.pending
+                    && unconfirmedLoads == other.unconfirmedLoads
+                    && lastUpdatedTimestamp == other.lastUpdatedTimestamp && equal(name, other.name)
+                    && equal(description, other.description) && equal(revealedImageUrl, other.revealedImageUrl)
+                    && equal(unlockedImageUrl, other.unlockedImageUrl);
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /** Mirror statistics; a snapshot taken by {@link #getStats()}. */
+    public static final class Stats {
+        public final int entries;
+        public final int pendingEntries;
+        public final boolean loadedFromDisk;
+        public final double diskLoadMillis;
+        public final int corruptFiles;
+        public final long saves;
+        public final long bytesOnDisk;
+        public final long reconciles;
+        public final long reconcileFailures;
+        public final long lastReconcileTimeMillis;
+
+        Stats(AchievementMirror mirror) {
+            int pendingCount = 0;
+            for (Entry entry : mirror.entries.values()) {
+                if (entry.pending) {
+                    pendingCount++;
+                }
+            }
+            entries = mirror.entries.size();
+            pendingEntries = pendingCount + mirror.pendingChanges.size();
+            loadedFromDisk = mirror.loadedFromDisk;
+            diskLoadMillis = mirror.diskLoadNanos / 1e6;
+            corruptFiles = mirror.corruptFiles;
+            saves = mirror.saves;
+            bytesOnDisk = mirror.bytesOnDisk;
+            reconciles = mirror.reconciles;
+            reconcileFailures = mirror.reconcileFailures;
+            lastReconcileTimeMillis = mirror.lastReconcileTimeMillis;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final AchievementsClient client;
+    private final File file;
+    private final String playerId;
+    private final Executor executor;
+
+    // Guarded by lock.
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // Achievement id -> changes made before it was mirrored.
+    private final Map<String, PendingChange> pendingChanges = new HashMap<>();
+    // Array handed out by getAchievements; rebuilt on the first read after a change.
+    private Entry[] snapshot = NO_ENTRIES;
+    private boolean started;
+    private boolean loadedFromDisk;
+    private long diskLoadNanos;
+    private int corruptFiles;
+    private boolean saveScheduled;
+    private long saves;
+    private long bytesOnDisk;
+    private boolean reconciling;
+    private long reconciles;
+    private long reconcileFailures;
+    private long lastReconcileTimeMillis;
+    private long lastReconcileUptimeNanos;
+
+    public AchievementMirror(Activity activity, String playerId) {
+        this(ClientRegistry.getAchievementsClient(activity),
+                new File(activity.getFilesDir(), getFileName(playerId)), playerId, getMirrorExecutor());
+    }
+
+    AchievementMirror(AchievementsClient client, File file, String playerId, Executor executor) {
+        if (playerId == null || playerId.isEmpty()) {
+            throw new IllegalArgumentException("playerId must not be empty");
+        }
+        this.client = client;
+        this.file = file;
+        this.playerId = playerId;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the saved copy and then reconciles it, both in the background;
+     * {@link #hasData()} tells when there is something to read. Does nothing
+     * after the first call.
+     */
+    public void start() {
+        synchronized (lock) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        // Called from the sign-in listener on the main thread, so the file is
+        // read on the executor. The reconcile's results are merged there too,
+        // after the file was read.
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadFromDisk();
+            }
+        });
+        reconcile();
+    }
+
+    /** Returns the mirrored achievements, in the order the service lists them. */
+    public Entry[] getAchievements() {
+        synchronized (lock) {
+            return snapshotLocked();
+        }
+    }
+
+    public Entry getAchievement(String id) {
+        synchronized (lock) {
+            return entries.get(id);
+        }
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    /** Whether the mirror has ever been filled, from disk or by a load. */
+    public boolean hasData() {
+        synchronized (lock) {
+            return loadedFromDisk || reconciles > 0;
+        }
+    }
+
+    public boolean isReconciling() {
+        synchronized (lock) {
+            return reconciling;
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (lock) {
+            return new Stats(this);
+        }
+    }
+
+    public void unlock(String id) {
+        synchronized (lock) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                pendingChangeLocked(id).state = Achievement.STATE_UNLOCKED;
+            } else if (entry.state != Achievement.STATE_UNLOCKED) {
+                putLocked(entry.withProgress(Achievement.STATE_UNLOCKED,
+                        entry.isIncremental() ? entry.totalSteps : entry.currentSteps, System.currentTimeMillis()));
+            }
+        }
+        client.unlock(id);
+    }
+
+    public void reveal(String id) {
+        synchronized (lock) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                PendingChange change = pendingChangeLocked(id);
+                change.state = Math.min(change.state, Achievement.STATE_REVEALED);
+            } else if (entry.state == Achievement.STATE_HIDDEN) {
+                putLocked(entry.withProgress(Achievement.STATE_REVEALED, entry.currentSteps,
+                        System.currentTimeMillis()));
+            }
+        }
+        client.reveal(id);
+    }
+
+    public void increment(String id, int numSteps) {
+        if (numSteps > 0) {
+            synchronized (lock) {
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    pendingChangeLocked(id).incrementSteps += numSteps;
+                } else {
+                    setStepsLocked(entry, (int) Math.min((long) entry.currentSteps + numSteps, entry.totalSteps));
+                }
+            }
+        }
+        client.increment(id, numSteps);
+    }
+
+    public void setSteps(String id, int numSteps) {
+        synchronized (lock) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                PendingChange change = pendingChangeLocked(id);
+                change.minSteps = Math.max(change.minSteps, numSteps);
+            } else {
+                setStepsLocked(entry, Math.min(numSteps, entry.totalSteps));
+            }
+        }
+        client.setSteps(id, numSteps);
+    }
+
+    /**
+     * Loads the achievements with {@code forceReload} and merges them in the
+     * background. Does nothing if a reconcile is running or the last one
+     * succeeded less than {@link #RECONCILE_MIN_INTERVAL_MILLIS} ago.
+     */
+    public void reconcile() {
+        synchronized (lock) {
+            if (reconciling || (lastReconcileUptimeNanos != 0
+                    && System.nanoTime() - lastReconcileUptimeNanos < RECONCILE_MIN_INTERVAL_MILLIS * 1_000_000L)) {
+                return;
+            }
+            reconciling = true;
+        }
+        client.load(/* forceReload= */ true)
+                .addOnSuccessListener(executor, new OnSuccessListener<AnnotatedData<AchievementBuffer>>() {
+                    @Override
+                    public void onSuccess(AnnotatedData<AchievementBuffer> data) {
+                        AchievementBuffer buffer = data.get();
+                        Map<String, Entry> loaded = new LinkedHashMap<>();
+                        try {
+                            int count = buffer.getCount();
+                            for (int i = 0; i < count; i++) {
+                                Entry entry = new Entry(buffer.get(i));
+                                loaded.put(entry.id, entry);
+                            }
+                        } finally {
+                            buffer.release();
+                        }
+                        merge(loaded, data.isStale());
+                    }
+                })
+                .addOnFailureListener(executor, new OnFailureListener() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        int statusCode = e instanceof ApiException
+                                ? ((ApiException) e).getStatusCode()
+                                : CommonStatusCodes.INTERNAL_ERROR;
+                        Log.w(TAG, "Reconcile failed with status " + statusCode + ", keeping the mirrored state");
+                        synchronized (lock) {
+                            reconciling = false;
+                            reconcileFailures++;
+                        }
+                    }
+                });
+    }
+
+    private void merge(Map<String, Entry> loaded, boolean stale) {
+        synchronized (lock) {
+            reconciling = false;
+            reconciles++;
+            if (!stale) {
+                lastReconcileTimeMillis = System.currentTimeMillis();
+                lastReconcileUptimeNanos = System.nanoTime();
+            }
+            boolean changed = loaded.size() != entries.size();
+            for (Map.Entry<String, Entry> item : loaded.entrySet()) {
+                Entry local = entries.get(item.getKey());
+                Entry merged = local == null ? item.getValue() : local.mergeLoaded(item.getValue(), stale);
+                PendingChange change = pendingChanges.remove(item.getKey());
+                if (change != null) {
+                    merged = change.applyTo(merged);
+                }
+                item.setValue(merged);
+                changed |= local == null || !local.sameAs(merged);
+            }
+            if (!changed) {
+                return;
+            }
+            // Loaded definitions replace ours, so removed achievements go away.
+            entries.clear();
+            entries.putAll(loaded);
+            snapshot = null;
+            scheduleSaveLocked();
+        }
+    }
+
+    private void setStepsLocked(Entry entry, int steps) {
+        if (!entry.isIncremental() || entry.state == Achievement.STATE_UNLOCKED || steps <= entry.currentSteps) {
+            return;
+        }
+        int state = steps >= entry.totalSteps ? Achievement.STATE_UNLOCKED : Achievement.STATE_REVEALED;
+        putLocked(entry.withProgress(state, steps, System.currentTimeMillis()));
+    }
+
+    private PendingChange pendingChangeLocked(String id) {
+        PendingChange change = pendingChanges.get(id);
+        if (change == null) {
+            change = new PendingChange();
+            pendingChanges.put(id, change);
+        }
+        return change;
+    }
+
+    private void putLocked(Entry entry) {
+        entries.put(entry.id, entry);
+        snapshot = null;
+        scheduleSaveLocked();
+    }
+
+    private Entry[] snapshotLocked() {
+        if (snapshot == null) {
+            snapshot = entries.values().toArray(new Entry[0]);
+        }
+        return snapshot;
+    }
+
+    private void scheduleSaveLocked() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                save();
+            }
+        });
+    }
+
+    /** Writes the current state; changes made meanwhile schedule another save. */
+    void save() {
+        Entry[] toSave;
+        synchronized (lock) {
+            saveScheduled = false;
+            toSave = snapshotLocked();
+        }
+        try {
+            byte[] bytes = encode(playerId, toSave);
+            File temp = new File(file.getPath() + ".tmp");
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(bytes);
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp + " to " + file);
+            }
+            synchronized (lock) {
+                saves++;
+                bytesOnDisk = bytes.length;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot save achievements: " + e.getMessage());
+        }
+    }
+
+    /** Reads the saved copy, unless a load already filled the mirror. */
+    void loadFromDisk() {
+        long start = System.nanoTime();
+        Entry[] saved = null;
+        boolean corrupt = false;
+        if (file.exists()) {
+            try {
+                saved = decode(playerId, readFile(file));
+                corrupt = saved == null;
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot read saved achievements: " + e.getMessage());
+                corrupt = true;
+            }
+        }
+        synchronized (lock) {
+            diskLoadNanos = System.nanoTime() - start;
+            if (corrupt) {
+                corruptFiles++;
+            }
+            if (saved == null || reconciles > 0) {
+                return;
+            }
+            boolean applied = false;
+            for (Entry entry : saved) {
+                PendingChange change = pendingChanges.remove(entry.id);
+                if (change != null) {
+                    entry = change.applyTo(entry);
+                    applied = true;
+                }
+                entries.put(entry.id, entry);
+            }
+            snapshot = null;
+            loadedFromDisk = true;
+            bytesOnDisk = file.length();
+            if (applied) {
+                scheduleSaveLocked();
+            }
+        }
+    }
+
+    static byte[] encode(String playerId, Entry[] entries) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64 + entries.length * 96);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeUTF(playerId);
+        payload.writeInt(entries.length);
+        for (Entry entry : entries) {
+            payload.writeUTF(entry.id);
+            writeString(payload, entry.name);
+            writeString(payload, entry.description);
+            payload.writeByte(entry.type);
+            payload.writeByte(entry.state);
+            payload.writeBoolean(entry.pending);
+            payload.writeByte(entry.unconfirmedLoads);
+            payload.writeInt(entry.currentSteps);
+            payload.writeInt(entry.totalSteps);
+            payload.writeLong(entry.xpValue);
+            payload.writeLong(entry.lastUpdatedTimestamp);
+            writeString(payload, entry.revealedImageUrl);
+            writeString(payload, entry.unlockedImageUrl);
+        }
+        payload.flush();
+        byte[] body = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+
+        ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(FILE_HEADER_SIZE + body.length);
+        DataOutputStream out = new DataOutputStream(fileBytes);
+        out.writeInt(FILE_MAGIC);
+        out.writeByte(FILE_VERSION);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+        out.flush();
+        return fileBytes.toByteArray();
+    }
+
+    /** Returns null if {@code bytes} is not an intact copy saved for {@code playerId}. */
+    static Entry[] decode(String playerId, byte[] bytes) throws IOException {
+        if (bytes.length < FILE_HEADER_SIZE) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != FILE_MAGIC || in.readByte() != FILE_VERSION) {
+            return null;
+        }
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length != bytes.length - FILE_HEADER_SIZE) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, FILE_HEADER_SIZE, length);
+        if ((int) crc.getValue() != checksum) {
+            Log.w(TAG, "Saved achievements failed the checksum, ignoring them");
+            return null;
+        }
+        if (!playerId.equals(in.readUTF())) {
+            return null;
+        }
+        int count = in.readInt();
+        if (count < 0 || count > length) {
+            return null;
+        }
+        Entry[] entries = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            String name = readString(in);
+            String description = readString(in);
+            int type = in.readByte();
+            int state = in.readByte();
+            boolean pending = in.readBoolean();
+            int unconfirmedLoads = in.readByte();
+            int currentSteps = in.readInt();
+            int totalSteps = in.readInt();
+            long xpValue = in.readLong();
+            long lastUpdatedTimestamp = in.readLong();
+            String revealedImageUrl = readString(in);
+            String unlockedImageUrl = readString(in);
+            entries[i] = new Entry(id, name, description, type, state, currentSteps, totalSteps, xpValue,
+                    lastUpdatedTimestamp, revealedImageUrl, unlockedImageUrl, pending, unconfirmedLoads);
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        long length = file.length();
+        if (length > FILE_HEADER_SIZE + MAX_PAYLOAD_SIZE) {
+            throw new IOException("File too large: " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private static String getFileName(String playerId) {
+        // The player id is checked on load, so a hash collision only costs the copy.
+        return "gpg_achievements_" + Integer.toHexString(String.valueOf(playerId).hashCode()) + ".bin";
+    }
+
+    private static synchronized Executor getMirrorExecutor() {
+        if (mirrorExecutor == null) {
+            mirrorExecutor = Executors.newSingleThreadExecutor(
+                    new BridgeStartup.BackgroundThreadFactory("gpg-achievement-mirror"));
+        }
+        return mirrorExecutor;
+    }
+}
@@ -3,7 +3,6 @@ package com.google.games.bridge;
 import android.app.Activity;
 import android.content.Intent;
 import com.google.android.gms.games.AchievementsClient;
-import com.google.android.gms.games.PlayGames;
 import com.google.android.gms.tasks.Task;
 
 class AchievementUiRequest extends SimpleUiRequest {
@@ -11,7 +10,7 @@ class AchievementUiRequest extends SimpleUiRequest {
 
     @Override
     protected Task<Intent> getIntent(Activity activity) {
-        AchievementsClient achievementClient = PlayGames.getAchievementsClient(activity);
+        AchievementsClient achievementClient = ClientRegistry.getAchievementsClient(activity);
         return achievementClient.getAchievementsIntent();
     }
 }
@@ -3,7 +3,6 @@ package com.google.games.bridge;
 import android.app.Activity;
 import android.content.Intent;
 import com.google.android.gms.games.LeaderboardsClient;
-import com.google.android.gms.games.PlayGames;
 import com.google.android.gms.tasks.Task;
 
 class AllLeaderboardsUiRequest extends SimpleUiRequest {
@@ -11,7 +10,7 @@ class AllLeaderboardsUiRequest extends SimpleUiRequest {
 
     @Override
     protected Task<Intent> getIntent(Activity activity) {
-        LeaderboardsClient client = PlayGames.getLeaderboardsClient(activity);
+        LeaderboardsClient client = ClientRegistry.getLeaderboardsClient(activity);
         return client.getAllLeaderboardsIntent();
     }
 }
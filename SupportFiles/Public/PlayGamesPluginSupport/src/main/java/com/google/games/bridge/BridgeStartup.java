@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Keeps bridge start-up work off the game's first frames.
+ *
+ * <p>The native {@code gpg} library is only loaded once a native-bridged intent
+ * is actually launched, and the Play Games clients are created in the
+ * {@link ClientRegistry} on a background thread right after sign-in instead of
+ * lazily on the game thread. The time
+ * spent in each phase is recorded and can be read with
+ * {@link #getStartupTimings()}.
+ */
+public final class BridgeStartup {
+    private static final String TAG = "BridgeStartup";
+
+    private static final String NATIVE_LIBRARY = "gpg";
+
+    static final String PHASE_NATIVE_LIBRARY_LOAD = "nativeLibraryLoad";
+    static final String PHASE_WARM_UP_ACHIEVEMENTS = "warmUp.achievements";
+    static final String PHASE_WARM_UP_LEADERBOARDS = "warmUp.leaderboards";
+    static final String PHASE_WARM_UP_SNAPSHOTS = "warmUp.snapshots";
+    static final String PHASE_WARM_UP_EVENTS = "warmUp.events";
+    static final String PHASE_WARM_UP_PLAYERS = "warmUp.players";
+    static final String PHASE_WARM_UP_PLAYER_STATS = "warmUp.playerStats";
+    static final String PHASE_WARM_UP_GAME_STATS = "warmUp.gameStats";
+    static final String PHASE_WARM_UP_TOTAL = "warmUp.total";
+
+    private static final Object lock = new Object();
+    private static boolean nativeLibraryLoaded;
+    private static WeakReference<Activity> warmedUpActivity;
+
+    // Phase durations in nanoseconds, in the order they completed.
+    private static final Map<String, Long> durations = new LinkedHashMap<>();
+    // Phase completion times in milliseconds since the process started.
+    private static final Map<String, Long> completedAt = new LinkedHashMap<>();
+
+    private static ExecutorService warmUpExecutor;
+
+    private BridgeStartup() {
+    }
+
+    /**
+     * Loads the native library backing {@link NativeBridgeActivity}. Only the
+     * first call does any work.
+     */
+    public static void loadNativeLibrary() {
+        synchronized (lock) {
+            if (nativeLibraryLoaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            System.loadLibrary(NATIVE_LIBRARY);
+            nativeLibraryLoaded = true;
+            record(PHASE_NATIVE_LIBRARY_LOAD, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates the Play Games clients used by the plugin on a background thread
+     * so that the first calls from the game thread find them cached. Should be
+     * called once the player is authenticated; repeated calls for the same
+     * activity do nothing.
+     */
+    public static void warmUpClients(final Activity activity) {
+        synchronized (lock) {
+            if (warmedUpActivity != null && warmedUpActivity.get() == activity) {
+                return;
+            }
+            warmedUpActivity = new WeakReference<>(activity);
+            if (warmUpExecutor == null) {
+                warmUpExecutor =
+                        Executors.newSingleThreadExecutor(new BackgroundThreadFactory("gpg-bridge-warmup"));
+            }
+        }
+        warmUpExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                try {
+                    warmUp(activity);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Client warm-up failed: " + e.getMessage(), e);
+                }
+                record(PHASE_WARM_UP_TOTAL, System.nanoTime() - start);
+                Log.d(TAG, "Startup timings: " + getStartupTimings());
+            }
+        });
+    }
+
+    private static void warmUp(Activity activity) {
+        long start = System.nanoTime();
+        ClientRegistry.getAchievementsClient(activity);
+        start = recordSince(PHASE_WARM_UP_ACHIEVEMENTS, start);
+        ClientRegistry.getLeaderboardsClient(activity);
+        start = recordSince(PHASE_WARM_UP_LEADERBOARDS, start);
+        ClientRegistry.getSnapshotsClient(activity);
+        start = recordSince(PHASE_WARM_UP_SNAPSHOTS, start);
+        ClientRegistry.getEventsClient(activity);
+        start = recordSince(PHASE_WARM_UP_EVENTS, start);
+        ClientRegistry.getPlayersClient(activity);
+        start = recordSince(PHASE_WARM_UP_PLAYERS, start);
+        ClientRegistry.getPlayerStatsClient(activity);
+        start = recordSince(PHASE_WARM_UP_PLAYER_STATS, start);
+        ClientRegistry.getGameStatsClient(activity);
+        recordSince(PHASE_WARM_UP_GAME_STATS, start);
+    }
+
+    /**
+     * Returns the duration of a start-up phase in nanoseconds, or -1 if the
+     * phase has not completed.
+     */
+    public static long getStartupTimingNanos(String phase) {
+        synchronized (lock) {
+            Long duration = durations.get(phase);
+            return duration == null ? -1 : duration;
+        }
+    }
+
+    /**
+     * Returns a human readable breakdown of the start-up phases that have
+     * completed so far, one phase per line:
+     * {@code <phase> <duration ms> (done at <ms since process start>)}.
+     */
+    public static String getStartupTimings() {
+        StringBuilder builder = new StringBuilder();
+        synchronized (lock) {
+            for (Map.Entry<String, Long> entry : durations.entrySet()) {
+                builder.append(String.format(Locale.US, "%s %.3f ms (done at %d ms)\n",
+                        entry.getKey(), entry.getValue() / 1e6, completedAt.get(entry.getKey())));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long recordSince(String phase, long start) {
+        long now = System.nanoTime();
+        record(phase, now - start);
+        return now;
+    }
+
+    private static void record(String phase, long durationNanos) {
+        long sinceProcessStart = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        synchronized (lock) {
+            durations.put(phase, durationNanos);
+            completedAt.put(phase, sinceProcessStart);
+        }
+    }
+
+    /** Creates daemon threads that run at background priority. */
+    static final class BackgroundThreadFactory implements ThreadFactory {
+        private final String name;
+
+        BackgroundThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
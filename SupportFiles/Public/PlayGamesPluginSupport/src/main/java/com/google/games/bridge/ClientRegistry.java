@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import com.google.android.gms.games.AchievementsClient;
+import com.google.android.gms.games.EventsClient;
+import com.google.android.gms.games.GameStatsClient;
+import com.google.android.gms.games.LeaderboardsClient;
+import com.google.android.gms.games.PlayGames;
+import com.google.android.gms.games.PlayerStatsClient;
+import com.google.android.gms.games.PlayersClient;
+import com.google.android.gms.games.SnapshotsClient;
+import com.google.android.gms.nearby.Nearby;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches one instance of each Play Games client per {@link Activity}.
+ *
+ * <p>Activities are only weakly referenced. Because the clients themselves hold
+ * on to their activity, the cached clients are dropped explicitly when the
+ * activity is destroyed rather than relying on the weak keys alone. Each drop
+ * bumps {@link #getGeneration()} and is reported to the
+ * {@link GenerationListener}, so callers holding clients of their own (the C#
+ * side) know to fetch them again.
+ *
+ * <p>The clients come from a {@link ClientFactory}, by default
+ * {@link PlayGames}. Installing another factory, e.g. an in-memory backend for
+ * load tests, drops every cached client.
+ */
+public final class ClientRegistry {
+
+    /** Creates the clients the registry hands out. */
+    public interface ClientFactory {
+        AchievementsClient getAchievementsClient(Activity activity);
+
+        LeaderboardsClient getLeaderboardsClient(Activity activity);
+
+        SnapshotsClient getSnapshotsClient(Activity activity);
+
+        EventsClient getEventsClient(Activity activity);
+
+        PlayersClient getPlayersClient(Activity activity);
+
+        PlayerStatsClient getPlayerStatsClient(Activity activity);
+
+        GameStatsClient getGameStatsClient(Activity activity);
+
+        ConnectionsClient getConnectionsClient(Activity activity);
+    }
+
+    /** Told whenever cached clients are dropped. */
+    public interface GenerationListener {
+        void onGenerationChanged(int generation);
+    }
+
+    private static final ClientFactory PLAY_GAMES = new ClientFactory() {
+        @Override
+        public AchievementsClient getAchievementsClient(Activity activity) {
+            return PlayGames.getAchievementsClient(activity);
+        }
+
+        @Override
+        public LeaderboardsClient getLeaderboardsClient(Activity activity) {
+            return PlayGames.getLeaderboardsClient(activity);
+        }
+
+        @Override
+        public SnapshotsClient getSnapshotsClient(Activity activity) {
+            return PlayGames.getSnapshotsClient(activity);
+        }
+
+        @Override
+        public EventsClient getEventsClient(Activity activity) {
+            return PlayGames.getEventsClient(activity);
+        }
+
+        @Override
+        public PlayersClient getPlayersClient(Activity activity) {
+            return PlayGames.getPlayersClient(activity);
+        }
+
+        @Override
+        public PlayerStatsClient getPlayerStatsClient(Activity activity) {
+            return PlayGames.getPlayerStatsClient(activity);
+        }
+
+        @Override
+        public GameStatsClient getGameStatsClient(Activity activity) {
+            return PlayGames.getGameStatsClient(activity);
+        }
+
+        @Override
+        public ConnectionsClient getConnectionsClient(Activity activity) {
+            return Nearby.getConnectionsClient(activity);
+        }
+    };
+
+    private static final int ACHIEVEMENTS = 0;
+    private static final int LEADERBOARDS = 1;
+    private static final int SNAPSHOTS = 2;
+    private static final int EVENTS = 3;
+    private static final int PLAYERS = 4;
+    private static final int PLAYER_STATS = 5;
+    private static final int GAME_STATS = 6;
+    private static final int CONNECTIONS = 7;
+    private static final int CLIENT_COUNT = 8;
+
+    private static final Object lock = new Object();
+    private static final Map<Activity, Object[]> clients = new WeakHashMap<>();
+    private static volatile int generation;
+    private static Application registeredApplication;
+    private static ClientFactory factory = PLAY_GAMES;
+    private static GenerationListener generationListener;
+
+    private ClientRegistry() {
+    }
+
+    public static AchievementsClient getAchievementsClient(Activity activity) {
+        return (AchievementsClient) get(activity, ACHIEVEMENTS);
+    }
+
+    public static LeaderboardsClient getLeaderboardsClient(Activity activity) {
+        return (LeaderboardsClient) get(activity, LEADERBOARDS);
+    }
+
+    public static SnapshotsClient getSnapshotsClient(Activity activity) {
+        return (SnapshotsClient) get(activity, SNAPSHOTS);
+    }
+
+    public static EventsClient getEventsClient(Activity activity) {
+        return (EventsClient) get(activity, EVENTS);
+    }
+
+    public static PlayersClient getPlayersClient(Activity activity) {
+        return (PlayersClient) get(activity, PLAYERS);
+    }
+
+    public static PlayerStatsClient getPlayerStatsClient(Activity activity) {
+        return (PlayerStatsClient) get(activity, PLAYER_STATS);
+    }
+
+    public static GameStatsClient getGameStatsClient(Activity activity) {
+        return (GameStatsClient) get(activity, GAME_STATS);
+    }
+
+    public static ConnectionsClient getConnectionsClient(Activity activity) {
+        return (ConnectionsClient) get(activity, CONNECTIONS);
+    }
+
+    /**
+     * Replaces the source of clients; null restores {@link PlayGames}. Clients
+     * cached so far are dropped.
+     */
+    public static void setClientFactory(ClientFactory clientFactory) {
+        GenerationListener listener;
+        synchronized (lock) {
+            factory = clientFactory == null ? PLAY_GAMES : clientFactory;
+            clients.clear();
+            generation++;
+            listener = generationListener;
+        }
+        notifyGenerationChanged(listener);
+    }
+
+    /**
+     * Sets the listener told whenever cached clients are dropped, so that a
+     * caller holding clients does not have to poll {@link #getGeneration()}.
+     * It is called outside the registry's lock, on the thread that dropped the
+     * clients. Null removes it.
+     */
+    public static void setGenerationListener(GenerationListener listener) {
+        synchronized (lock) {
+            generationListener = listener;
+        }
+    }
+
+    /**
+     * Returns a counter that changes whenever cached clients are dropped.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    private static Object get(Activity activity, int type) {
+        synchronized (lock) {
+            registerLifecycleCallbacks(activity);
+            Object[] activityClients = clients.get(activity);
+            if (activityClients == null) {
+                activityClients = new Object[CLIENT_COUNT];
+                clients.put(activity, activityClients);
+            }
+            Object client = activityClients[type];
+            if (client == null) {
+                client = create(activity, type);
+                activityClients[type] = client;
+            }
+            return client;
+        }
+    }
+
+    private static Object create(Activity activity, int type) {
+        switch (type) {
+            case ACHIEVEMENTS:
+                return factory.getAchievementsClient(activity);
+            case LEADERBOARDS:
+                return factory.getLeaderboardsClient(activity);
+            case SNAPSHOTS:
+                return factory.getSnapshotsClient(activity);
+            case EVENTS:
+                return factory.getEventsClient(activity);
+            case PLAYERS:
+                return factory.getPlayersClient(activity);
+            case PLAYER_STATS:
+                return factory.getPlayerStatsClient(activity);
+            case GAME_STATS:
+                return factory.getGameStatsClient(activity);
+            case CONNECTIONS:
+                return factory.getConnectionsClient(activity);
+            default:
+                throw new IllegalArgumentException("Unknown client type " + type);
+        }
+    }
+
+    private static void registerLifecycleCallbacks(Activity activity) {
+        Application application = activity.getApplication();
+        if (application == null || application == registeredApplication) {
+            return;
+        }
+        application.registerActivityLifecycleCallbacks(new ActivityDestroyedCallbacks());
+        registeredApplication = application;
+    }
+
+    static void clear(Activity activity) {
+        GenerationListener listener = null;
+        synchronized (lock) {
+            if (clients.remove(activity) != null) {
+                generation++;
+                listener = generationListener;
+            }
+        }
+        notifyGenerationChanged(listener);
+    }
+
+    private static void notifyGenerationChanged(GenerationListener listener) {
+        if (listener != null) {
+            listener.onGenerationChanged(generation);
+        }
+    }
+
+    private static final class ActivityDestroyedCallbacks implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            clear(activity);
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+    }
+}
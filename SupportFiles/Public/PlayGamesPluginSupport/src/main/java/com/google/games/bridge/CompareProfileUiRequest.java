@@ -2,7 +2,6 @@ package com.google.games.bridge;
 
 import android.app.Activity;
 import android.content.Intent;
-import com.google.android.gms.games.PlayGames;
 import com.google.android.gms.games.PlayersClient;
 import com.google.android.gms.tasks.Task;
 
@@ -22,7 +21,7 @@ class CompareProfileUiRequest extends SimpleUiRequest {
 
     @Override
     protected Task<Intent> getIntent(Activity activity) {
-        PlayersClient playersClient = PlayGames.getPlayersClient(activity);
+        PlayersClient playersClient = ClientRegistry.getPlayersClient(activity);
         return playersClient.getCompareProfileIntentWithAlternativeNameHints(
                 playerId, otherPlayerInGameName, currentPlayerInGameName);
     }
@@ -6,21 +6,80 @@ import com.google.android.gms.nearby.connection.ConnectionResolution;
 
 public class ConnectionLifecycleCallbackProxy extends ConnectionLifecycleCallback {
     private Callback callback;
+    private volatile NearbyCompression compression;
+    private volatile NearbySessionManager sessions;
 
     public ConnectionLifecycleCallbackProxy(Callback callback) {
         this.callback = callback;
     }
 
+    public void setCompression(NearbyCompression compression) {
+        this.compression = compression;
+    }
+
+    public void setSessions(NearbySessionManager sessions) {
+        this.sessions = sessions;
+    }
+
     public void onConnectionResult(/* @NonNull */ String endpointId, /* @NonNull */ ConnectionResolution resolution) {
-        callback.onConnectionResult(endpointId, resolution);
+        NearbyCompression compression = this.compression;
+        if (compression != null && !resolution.getStatus().isSuccess()) {
+            compression.removeEndpoint(endpointId);
+        }
+        NearbySessionManager sessions = this.sessions;
+        if (sessions != null && sessions.onConnectionResult(endpointId, resolution.getStatus().isSuccess())) {
+            return;
+        }
+        long start = MainThreadWatchdog.begin();
+        try {
+            callback.onConnectionResult(endpointId, resolution);
+        } finally {
+            MainThreadWatchdog.end("ConnectionLifecycleCallbackProxy.onConnectionResult", endpointId, start);
+        }
     }
 
     public void onDisconnected(/* @NonNull */ String endpointId) {
-        callback.onDisconnected(endpointId);
+        NearbyCompression compression = this.compression;
+        if (compression != null) {
+            compression.removeEndpoint(endpointId);
+        }
+        NearbySessionManager sessions = this.sessions;
+        if (sessions != null) {
+            // Null while the session tries to resume; otherwise the id the game knows.
+            endpointId = sessions.onDisconnected(endpointId);
+            if (endpointId == null) {
+                return;
+            }
+        }
+        reportDisconnected(endpointId);
+    }
+
+    /** Tells the game that {@code endpointId} disconnected. */
+    void reportDisconnected(String endpointId) {
+        long start = MainThreadWatchdog.begin();
+        try {
+            callback.onDisconnected(endpointId);
+        } finally {
+            MainThreadWatchdog.end("ConnectionLifecycleCallbackProxy.onDisconnected", endpointId, start);
+        }
     }
 
     public void onConnectionInitiated(/* @NonNull */ String endpointId, /* @NonNull */ ConnectionInfo connectionInfo) {
-        callback.onConnectionInitiated(endpointId, connectionInfo);
+        NearbyCompression compression = this.compression;
+        if (compression != null) {
+            compression.onConnectionInitiated(endpointId, connectionInfo.getEndpointName());
+        }
+        NearbySessionManager sessions = this.sessions;
+        if (sessions != null && sessions.onConnectionInitiated(endpointId, connectionInfo.getEndpointName(),
+                connectionInfo.isIncomingConnection(), this)) {
+            return;
+        }
+        long start = MainThreadWatchdog.begin();
+        try {
+            callback.onConnectionInitiated(endpointId, connectionInfo);
+        } finally {
+            MainThreadWatchdog.end("ConnectionLifecycleCallbackProxy.onConnectionInitiated", endpointId, start);
+        }
     }
 
     public interface Callback {
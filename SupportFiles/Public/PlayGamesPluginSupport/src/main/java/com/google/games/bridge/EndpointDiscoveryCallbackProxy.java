@@ -5,17 +5,36 @@ import com.google.android.gms.nearby.connection.EndpointDiscoveryCallback;
 
 public class EndpointDiscoveryCallbackProxy extends EndpointDiscoveryCallback {
     private Callback callback;
+    private volatile NearbySessionManager sessions;
 
     public EndpointDiscoveryCallbackProxy(Callback callback) {
         this.callback = callback;
     }
 
+    public void setSessions(NearbySessionManager sessions) {
+        this.sessions = sessions;
+    }
+
     public void onEndpointFound(/* @NonNull */ String endpointId, /* @NonNull */ DiscoveredEndpointInfo info) {
-        callback.onEndpointFound(endpointId, info);
+        NearbySessionManager sessions = this.sessions;
+        if (sessions != null) {
+            sessions.onEndpointFound(endpointId, info.getEndpointName());
+        }
+        long start = MainThreadWatchdog.begin();
+        try {
+            callback.onEndpointFound(endpointId, info);
+        } finally {
+            MainThreadWatchdog.end("EndpointDiscoveryCallbackProxy.onEndpointFound", endpointId, start);
+        }
     }
 
     public void onEndpointLost(/* @NonNull */ String endpointId) {
-        callback.onEndpointLost(endpointId);
+        long start = MainThreadWatchdog.begin();
+        try {
+            callback.onEndpointLost(endpointId);
+        } finally {
+            MainThreadWatchdog.end("EndpointDiscoveryCallbackProxy.onEndpointLost", endpointId, start);
+        }
     }
 
     public interface Callback {
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+/**
+ * Capability tokens carried in Nearby endpoint names.
+ *
+ * <p>Endpoint names are the only data both sides see before a connection is
+ * accepted, so bridge features that must be agreed on up front append a
+ * token: a separator, a one letter key and an optional value. The name shown
+ * to the game is everything before the first separator.
+ *
+ * <p>Peers on plugin versions without tokens show the whole name, so an
+ * advertiser that enables such a feature is listed with the tokens by them.
+ * Requesters only add tokens for advertisers that carried tokens themselves.
+ */
+final class EndpointNames {
+    private static final char SEPARATOR = '\u001f';
+
+    private EndpointNames() {
+    }
+
+    static String withToken(String name, char key, String value) {
+        return name + SEPARATOR + key + value;
+    }
+
+    /** Returns the value of the token with {@code key}, or null if there is none. */
+    static String getToken(String name, char key) {
+        if (name == null) {
+            return null;
+        }
+        int start = name.indexOf(SEPARATOR);
+        while (start >= 0 && start + 1 < name.length()) {
+            int end = name.indexOf(SEPARATOR, start + 1);
+            if (name.charAt(start + 1) == key) {
+                return name.substring(start + 2, end < 0 ? name.length() : end);
+            }
+            start = end;
+        }
+        return null;
+    }
+
+    static boolean hasTokens(String name) {
+        return name != null && name.indexOf(SEPARATOR) >= 0;
+    }
+
+    static String getDisplayName(String name) {
+        if (name == null) {
+            return null;
+        }
+        int index = name.indexOf(SEPARATOR);
+        return index < 0 ? name : name.substring(0, index);
+    }
+}
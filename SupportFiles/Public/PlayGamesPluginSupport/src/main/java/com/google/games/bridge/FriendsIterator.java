@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.app.PendingIntent;
+import android.os.Bundle;
+import android.util.Log;
+import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
+import com.google.android.gms.common.api.ResolvableApiException;
+import com.google.android.gms.games.AnnotatedData;
+import com.google.android.gms.games.Player;
+import com.google.android.gms.games.PlayerBuffer;
+import com.google.android.gms.games.PlayersClient;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams the friends list page by page, loading the next page in the
+ * background before the consumer runs out.
+ *
+ * <p>Once the number of friends not yet returned by {@link #next(int)} drops to
+ * the low-water mark, the next page is requested. Pages are converted to
+ * {@link Friend}s off the main thread, so that reading them is a single call
+ * per batch, and at most {@code maxBufferedPages} unconsumed pages are held.
+ * Every friend loaded so far can be looked up by player id.
+ *
+ * <p>A page that adds no friends ends the stream even if it carries a next
+ * page token, so that a cursor that does not advance cannot keep requesting.
+ */
+public class FriendsIterator {
+    private static final String TAG = "FriendsIterator";
+
+    private static final String NEXT_PAGE_TOKEN = "next_page_token";
+    // PlayerFriendStatus.FRIEND
+    private static final int FRIEND_STATUS_FRIEND = 4;
+    private static final Friend[] NO_FRIENDS = new Friend[0];
+
+    private static Executor conversionExecutor;
+
+    public static final class Friend {
+        public final String playerId;
+        public final String displayName;
+        public final String avatarUrl;
+        public final boolean isFriend;
+
+        Friend(Player player) {
+            playerId = player.getPlayerId();
+            displayName = player.getDisplayName();
+            avatarUrl = player.getIconImageUrl();
+            isFriend = player.getRelationshipInfo() != null
+                    && player.getRelationshipInfo().getFriendStatus() == FRIEND_STATUS_FRIEND;
+        }
+    }
+
+    public interface Listener {
+        void onPageLoaded(int friendsLoaded, boolean hasMorePages);
+
+        void onLoadFailed(int statusCode);
+    }
+
+    private final Object lock = new Object();
+    private final PlayersClient client;
+    private final Executor executor;
+    private final int pageSize;
+    private final int lowWaterMark;
+    private final int maxBufferedPages;
+    private final boolean forceReload;
+
+    private final ArrayDeque<Friend[]> pages = new ArrayDeque<>();
+    private final Map<String, Friend> index = new HashMap<>();
+    private volatile Listener listener;
+    // Position of the next friend to return within pages.peek().
+    private int headPosition;
+    private int buffered;
+    // loadMoreFriends returns every friend loaded so far, not just the new
+    // page; this many of them were already taken from earlier buffers.
+    private int consumed;
+    private boolean started;
+    private boolean loading;
+    private boolean hasMorePages = true;
+    private int failureStatusCode = CommonStatusCodes.SUCCESS;
+    private Exception failure;
+
+    public FriendsIterator(Activity activity, int pageSize, int lowWaterMark, int maxBufferedPages,
+            boolean forceReload) {
+        this(ClientRegistry.getPlayersClient(activity), getConversionExecutor(), pageSize, lowWaterMark,
+                maxBufferedPages, forceReload);
+    }
+
+    FriendsIterator(PlayersClient client, Executor executor, int pageSize, int lowWaterMark,
+            int maxBufferedPages, boolean forceReload) {
+        if (pageSize < 1 || lowWaterMark < 0 || maxBufferedPages < 1) {
+            throw new IllegalArgumentException(
+                    "pageSize and maxBufferedPages must be positive and lowWaterMark must not be negative");
+        }
+        this.client = client;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.lowWaterMark = lowWaterMark;
+        this.maxBufferedPages = maxBufferedPages;
+        this.forceReload = forceReload;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Requests the first page. */
+    public void start() {
+        synchronized (lock) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        maybeLoadNextPage();
+    }
+
+    /** Loads the next page again after {@link Listener#onLoadFailed(int)}. */
+    public void retry() {
+        synchronized (lock) {
+            failure = null;
+            failureStatusCode = CommonStatusCodes.SUCCESS;
+        }
+        maybeLoadNextPage();
+    }
+
+    /**
+     * Returns up to {@code maxCount} friends that were not returned before, or
+     * an empty array if none are loaded yet.
+     */
+    public Friend[] next(int maxCount) {
+        Friend[] batch;
+        synchronized (lock) {
+            int count = Math.min(maxCount, buffered);
+            if (count <= 0) {
+                batch = NO_FRIENDS;
+            } else {
+                batch = new Friend[count];
+                int copied = 0;
+                while (copied < count) {
+                    Friend[] head = pages.peek();
+                    int n = Math.min(count - copied, head.length - headPosition);
+                    System.arraycopy(head, headPosition, batch, copied, n);
+                    copied += n;
+                    headPosition += n;
+                    if (headPosition == head.length) {
+                        pages.poll();
+                        headPosition = 0;
+                    }
+                }
+                buffered -= count;
+            }
+        }
+        maybeLoadNextPage();
+        return batch;
+    }
+
+    public int available() {
+        synchronized (lock) {
+            return buffered;
+        }
+    }
+
+    public Friend findFriend(String playerId) {
+        synchronized (lock) {
+            return index.get(playerId);
+        }
+    }
+
+    public int getLoadedCount() {
+        synchronized (lock) {
+            return index.size();
+        }
+    }
+
+    public boolean isLoading() {
+        synchronized (lock) {
+            return loading;
+        }
+    }
+
+    public boolean hasMorePages() {
+        synchronized (lock) {
+            return hasMorePages;
+        }
+    }
+
+    /** True once every page was loaded and returned by {@link #next(int)}. */
+    public boolean isComplete() {
+        synchronized (lock) {
+            return !hasMorePages && buffered == 0;
+        }
+    }
+
+    public int getFailureStatusCode() {
+        synchronized (lock) {
+            return failureStatusCode;
+        }
+    }
+
+    /** The exception of the last failed load, e.g. to ask for friends list consent. */
+    public Exception getFailure() {
+        synchronized (lock) {
+            return failure;
+        }
+    }
+
+    /** True if the last load failed because the player has to allow access to the friends list. */
+    public boolean isResolutionRequired() {
+        synchronized (lock) {
+            return HelperFragment.isResolutionRequired(failure);
+        }
+    }
+
+    /**
+     * The intent that asks the player for friends list access, for
+     * {@link HelperFragment#askForLoadFriendsResolution}, or null if the last
+     * load did not fail for that reason.
+     */
+    public PendingIntent getResolution() {
+        synchronized (lock) {
+            return failure instanceof ResolvableApiException
+                    ? ((ResolvableApiException) failure).getResolution()
+                    : null;
+        }
+    }
+
+    private void maybeLoadNextPage() {
+        final boolean firstPage;
+        synchronized (lock) {
+            if (!started || loading || !hasMorePages || failure != null
+                    || buffered > lowWaterMark || pages.size() >= maxBufferedPages) {
+                return;
+            }
+            loading = true;
+            firstPage = index.isEmpty() && pages.isEmpty();
+        }
+
+        Task<AnnotatedData<PlayerBuffer>> task = firstPage
+                ? client.loadFriends(pageSize, forceReload)
+                : client.loadMoreFriends(pageSize);
+        task.addOnSuccessListener(
+                executor,
+                new OnSuccessListener<AnnotatedData<PlayerBuffer>>() {
+                    @Override
+                    public void onSuccess(AnnotatedData<PlayerBuffer> data) {
+                        onPageLoaded(data.get());
+                    }
+                })
+            .addOnFailureListener(
+                executor,
+                new OnFailureListener() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        onLoadFailed(e);
+                    }
+                });
+    }
+
+    private void onPageLoaded(PlayerBuffer buffer) {
+        int from;
+        synchronized (lock) {
+            from = consumed;
+        }
+        Friend[] page;
+        boolean more;
+        try {
+            int count = buffer.getCount();
+            page = new Friend[Math.max(0, count - from)];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = new Friend(buffer.get(from + i));
+            }
+            Bundle metadata = buffer.getMetadata();
+            more = metadata != null && metadata.getString(NEXT_PAGE_TOKEN) != null;
+        } finally {
+            buffer.release();
+        }
+        if (more && page.length == 0) {
+            Log.w(TAG, "Page added no friends; not following its next page token");
+            more = false;
+        }
+
+        int loaded;
+        synchronized (lock) {
+            if (page.length > 0) {
+                pages.add(page);
+                buffered += page.length;
+                consumed += page.length;
+            }
+            for (Friend friend : page) {
+                index.put(friend.playerId, friend);
+            }
+            loading = false;
+            hasMorePages = more;
+            loaded = index.size();
+        }
+
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.onPageLoaded(loaded, more);
+        }
+        maybeLoadNextPage();
+    }
+
+    private void onLoadFailed(Exception e) {
+        int statusCode = e instanceof ApiException
+                ? ((ApiException) e).getStatusCode()
+                : CommonStatusCodes.INTERNAL_ERROR;
+        Log.w(TAG, "Loading friends failed: " + e.getMessage());
+        synchronized (lock) {
+            loading = false;
+            failure = e;
+            failureStatusCode = statusCode;
+        }
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.onLoadFailed(statusCode);
+        }
+    }
+
+    private static synchronized Executor getConversionExecutor() {
+        if (conversionExecutor == null) {
+            conversionExecutor = Executors.newSingleThreadExecutor(
+                    new BridgeStartup.BackgroundThreadFactory("gpg-friends-prefetch"));
+        }
+        return conversionExecutor;
+    }
+}
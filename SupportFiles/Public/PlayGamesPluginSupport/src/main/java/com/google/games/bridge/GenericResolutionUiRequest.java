@@ -2,7 +2,9 @@ package com.google.games.bridge;
 
 import android.app.Activity;
 import android.app.PendingIntent;
+import android.content.ActivityNotFoundException;
 import android.content.Intent;
+import android.content.IntentSender.SendIntentException;
 import android.util.Log;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.TaskCompletionSource;
@@ -17,6 +19,10 @@ class GenericResolutionUiRequest implements HelperFragment.Request {
 
     private final TaskCompletionSource<Integer> resultTaskSource = new TaskCompletionSource<>();
 
+    // Whether the resolution was started from the fragment rather than
+    // through GenericResolutionActivity.
+    private boolean launchedDirectly;
+
     GenericResolutionUiRequest(PendingIntent pendingIntent) {
         this.pendingIntent = pendingIntent;
     }
@@ -26,17 +32,43 @@ class GenericResolutionUiRequest implements HelperFragment.Request {
     }
 
     public void process(final HelperFragment helperFragment) {
-        final Activity activity = helperFragment.getActivity();
-        Intent intent = new Intent(activity, GenericResolutionActivity.class);
-        intent.putExtra("RequestFriendsAccessPermissionPendingIntent", pendingIntent);
-        helperFragment.startActivityForResult(intent, HelperFragment.RC_RESOLUTION_DIALOG);
+        long start = MainThreadWatchdog.begin();
+        try {
+            if (HelperFragment.isDirectLaunchEnabled()) {
+                try {
+                    // The fragment receives the result itself, which saves
+                    // starting GenericResolutionActivity just to forward it.
+                    helperFragment.startIntentSenderForResult(
+                            pendingIntent.getIntentSender(),
+                            HelperFragment.RC_RESOLUTION_DIALOG, /* fillInIntent */
+                            null,
+                            /* flagsMask */ 0,
+                            /* flagsValues */ 0,
+                            /* extraFlags */ 0,
+                            /* options */ null);
+                    launchedDirectly = true;
+                    return;
+                } catch (SendIntentException | ActivityNotFoundException e) {
+                    Log.w(TAG, "Cannot launch resolution from the fragment, using GenericResolutionActivity: "
+                            + e.getMessage());
+                }
+            }
+            final Activity activity = helperFragment.getActivity();
+            Intent intent = new Intent(activity, GenericResolutionActivity.class);
+            intent.putExtra("RequestFriendsAccessPermissionPendingIntent", pendingIntent);
+            helperFragment.startActivityForResult(intent, HelperFragment.RC_RESOLUTION_DIALOG);
+        } finally {
+            MainThreadWatchdog.end("GenericResolutionUiRequest.process", getClass(), start);
+        }
     }
 
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode == HelperFragment.RC_RESOLUTION_DIALOG) {
             if (resultCode == Activity.RESULT_OK) {
                 setResult(SELECT_UI_STATUS_RESULT_OK);
-            } else if (resultCode == Activity.RESULT_CANCELED) {
+            } else if (resultCode == Activity.RESULT_CANCELED || launchedDirectly) {
+                // GenericResolutionActivity reports every result other than
+                // RESULT_OK as RESULT_CANCELED; map direct launches the same way.
                 setResult(SELECT_UI_STATUS_USER_CLOSED_UI);
             } else {
                 Log.d(TAG, "onActivityResult unknown resultCode: " + resultCode);
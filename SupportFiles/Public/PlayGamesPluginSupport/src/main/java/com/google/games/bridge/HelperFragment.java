@@ -41,6 +41,7 @@ public class HelperFragment extends Fragment
     static final int RC_SELECT_OPPONENTS_UI = 9006;
     static final int RC_SHOW_REQUEST_PERMISSIONS_UI = 9010;
     static final int RC_RESOLUTION_DIALOG = 9011;
+    static final int RC_NATIVE_BRIDGE = 9012;
 
     // Pending token request.  There can be only one outstanding request at a
     // time.
@@ -48,6 +49,25 @@ public class HelperFragment extends Fragment
     private static Request pendingRequest, runningRequest;
     private static HelperFragment helperFragment;
 
+    // Whether resolutions and bridged intents are launched from this fragment
+    // rather than from GenericResolutionActivity and NativeBridgeActivity.
+    private static volatile boolean directLaunchEnabled = true;
+
+    /**
+     * Chooses how resolution intents and intents from the native SDK are
+     * launched. Enabled by default: the fragment launches them and receives
+     * their results itself. When disabled, or when the fragment cannot launch
+     * them, a transparent activity is started to launch them and forward the
+     * result, as before.
+     */
+    public static void setDirectLaunchEnabled(boolean enabled) {
+        directLaunchEnabled = enabled;
+    }
+
+    public static boolean isDirectLaunchEnabled() {
+        return directLaunchEnabled;
+    }
+
     public static Task<Integer> showAchievementUi(Activity parentActivity) {
         AchievementUiRequest request = new AchievementUiRequest();
 
@@ -106,6 +126,15 @@ public class HelperFragment extends Fragment
         return request.getTask();
     }
 
+    /**
+     * Launches an intent from the native SDK and forwards its result to the
+     * SDK. Returns false if another request is running, in which case the
+     * caller should fall back to {@link NativeBridgeActivity}.
+     */
+    static boolean launchBridgeIntent(Activity parentActivity, Intent intent) {
+        return HelperFragment.startRequest(parentActivity, new NativeBridgeRequest(parentActivity, intent));
+    }
+
     public static Task<Integer> showCompareProfileWithAlternativeNameHintsUI(
             Activity parentActivity,
             String playerId,
@@ -141,6 +170,7 @@ public class HelperFragment extends Fragment
     }
 
     private static HelperFragment getHelperFragment(Activity parentActivity) {
+        long start = MainThreadWatchdog.begin();
         HelperFragment fragment = (HelperFragment)
                 parentActivity.getFragmentManager().findFragmentByTag(FRAGMENT_TAG);
 
@@ -154,7 +184,11 @@ public class HelperFragment extends Fragment
             } catch (Throwable th) {
                 Log.e(TAG, "Cannot launch token fragment:" + th.getMessage(), th);
                 return null;
+            } finally {
+                MainThreadWatchdog.end("HelperFragment.getHelperFragment", "create", start);
             }
+        } else {
+            MainThreadWatchdog.end("HelperFragment.getHelperFragment", "lookup", start);
         }
         return fragment;
     }
@@ -203,7 +237,12 @@ public class HelperFragment extends Fragment
         if (request == null) {
             return;
         }
-        request.onActivityResult(requestCode, resultCode, data);
+        long start = MainThreadWatchdog.begin();
+        try {
+            request.onActivityResult(requestCode, resultCode, data);
+        } finally {
+            MainThreadWatchdog.end("HelperFragment.onActivityResult", request.getClass(), start);
+        }
     }
 
     /**
@@ -222,6 +261,27 @@ public class HelperFragment extends Fragment
         processRequest();
     }
 
+    /**
+     * Called when the fragment is no longer in use. If its activity is
+     * finishing, a bridged intent's result will never arrive, so the native
+     * SDK is told it was canceled.
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        Activity activity = getActivity();
+        if (activity == null || !activity.isFinishing()) {
+            return;
+        }
+        Request request;
+        synchronized (lock) {
+            request = runningRequest;
+        }
+        if (request instanceof NativeBridgeRequest) {
+            ((NativeBridgeRequest) request).cancel();
+        }
+    }
+
     static void finishRequest(Request request) {
         synchronized (lock) {
             if (runningRequest == request) {
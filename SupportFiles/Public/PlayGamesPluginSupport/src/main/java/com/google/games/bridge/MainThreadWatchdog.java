@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Opt-in measurement of how long bridge entry points hold the main thread,
+ * which Unity shares for input and lifecycle events.
+ *
+ * <p>Entry points are bracketed with {@link #begin()} and
+ * {@link #end(String, String, long)}; both do nothing unless the watchdog was
+ * enabled, and calls off the main thread are ignored. Per entry point the
+ * watchdog keeps call counts and durations, and of the calls that exceed the
+ * threshold it keeps a fixed number of the longest ones, together with the
+ * request type and the stack they were called from. A {@link Choreographer} frame
+ * callback counts frame overruns and how many of them happened while bridge
+ * work was running.
+ */
+public final class MainThreadWatchdog {
+    private static final String TAG = "MainThreadWatchdog";
+
+    static final long FRAME_INTERVAL_NANOS = 16_666_667L;
+    private static final int MAX_STACK_DEPTH = 24;
+
+    private static final class EntryPointStats {
+        long calls;
+        long totalNanos;
+        long maxNanos;
+    }
+
+    private static final class Stall {
+        final String entryPoint;
+        final String requestType;
+        final long durationNanos;
+        final long uptimeMillis;
+        final StackTraceElement[] stack;
+
+        Stall(String entryPoint, String requestType, long durationNanos, long uptimeMillis,
+                StackTraceElement[] stack) {
+            this.entryPoint = entryPoint;
+            this.requestType = requestType;
+            this.durationNanos = durationNanos;
+            this.uptimeMillis = uptimeMillis;
+            this.stack = stack;
+        }
+    }
+
+    private static final Object lock = new Object();
+    private static volatile boolean enabled;
+    private static long thresholdNanos;
+    // The longest calls over the threshold, in no particular order.
+    private static Stall[] stalls = new Stall[0];
+    private static int keptStalls;
+    private static long totalStalls;
+    private static final Map<String, EntryPointStats> entryPoints = new TreeMap<>();
+
+    // Frame accounting, updated on the main thread.
+    private static boolean frameCallbackPosted;
+    private static int activeDepth;
+    private static boolean bridgeWorkSinceLastFrame;
+    private static long lastFrameTimeNanos;
+    private static long frames;
+    private static long frameOverruns;
+    private static long overrunsDuringBridgeWork;
+    private static long framesMissedDuringBridgeWork;
+
+    private static final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            synchronized (lock) {
+                if (!enabled) {
+                    frameCallbackPosted = false;
+                    return;
+                }
+                if (lastFrameTimeNanos != 0) {
+                    frames++;
+                    long elapsed = frameTimeNanos - lastFrameTimeNanos;
+                    if (elapsed > FRAME_INTERVAL_NANOS * 3 / 2) {
+                        frameOverruns++;
+                        if (bridgeWorkSinceLastFrame || activeDepth > 0) {
+                            overrunsDuringBridgeWork++;
+                            framesMissedDuringBridgeWork += elapsed / FRAME_INTERVAL_NANOS - 1;
+                        }
+                    }
+                }
+                lastFrameTimeNanos = frameTimeNanos;
+                bridgeWorkSinceLastFrame = activeDepth > 0;
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    private MainThreadWatchdog() {
+    }
+
+    /**
+     * Starts measuring. Calls that hold the main thread for at least
+     * {@code thresholdMillis} are kept, up to {@code maxStalls} of the longest
+     * ones. Enabling again resets everything measured so far.
+     */
+    public static void enable(int thresholdMillis, int maxStalls) {
+        if (thresholdMillis < 0 || maxStalls < 1) {
+            throw new IllegalArgumentException("thresholdMillis must not be negative and maxStalls must be positive");
+        }
+        synchronized (lock) {
+            thresholdNanos = thresholdMillis * 1_000_000L;
+            stalls = new Stall[maxStalls];
+            resetLocked();
+            enabled = true;
+        }
+        // Choreographer callbacks must be posted from the main thread.
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (lock) {
+                    if (!enabled || frameCallbackPosted) {
+                        return;
+                    }
+                    frameCallbackPosted = true;
+                    lastFrameTimeNanos = 0;
+                }
+                Choreographer.getInstance().postFrameCallback(frameCallback);
+            }
+        });
+    }
+
+    /** Stops measuring; what was measured can still be dumped. */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void reset() {
+        synchronized (lock) {
+            resetLocked();
+        }
+    }
+
+    /**
+     * Marks the start of bridge work. Returns the value to pass to
+     * {@link #end(String, String, long)}, or 0 if this call is not measured.
+     */
+    static long begin() {
+        if (!enabled || !Looper.getMainLooper().isCurrentThread()) {
+            return 0;
+        }
+        synchronized (lock) {
+            activeDepth++;
+        }
+        return System.nanoTime();
+    }
+
+    static void end(String entryPoint, Class<?> requestType, long start) {
+        if (start != 0) {
+            end(entryPoint, requestType.getSimpleName(), start);
+        }
+    }
+
+    static void end(String entryPoint, String requestType, long start) {
+        if (start == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        boolean stalled;
+        synchronized (lock) {
+            activeDepth--;
+            bridgeWorkSinceLastFrame = true;
+            EntryPointStats stats = entryPoints.get(entryPoint);
+            if (stats == null) {
+                stats = new EntryPointStats();
+                entryPoints.put(entryPoint, stats);
+            }
+            stats.calls++;
+            stats.totalNanos += duration;
+            stats.maxNanos = Math.max(stats.maxNanos, duration);
+            stalled = duration >= thresholdNanos;
+        }
+        if (!stalled) {
+            return;
+        }
+
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        // Drop the watchdog's own frames.
+        int first = 0;
+        while (first < stack.length && stack[first].getClassName().equals(MainThreadWatchdog.class.getName())) {
+            first++;
+        }
+        stack = Arrays.copyOfRange(stack, first, Math.min(stack.length, first + MAX_STACK_DEPTH));
+        Stall stall = new Stall(entryPoint, requestType, duration, SystemClock.uptimeMillis(), stack);
+        synchronized (lock) {
+            totalStalls++;
+            keepLocked(stall);
+        }
+        Log.w(TAG, String.format(Locale.US, "%s (%s) held the main thread for %.1f ms",
+                entryPoint, requestType, duration / 1e6));
+    }
+
+    /**
+     * Returns a readable report: frame overruns, per entry point totals and
+     * the kept stalls, longest first.
+     */
+    public static String dump() {
+        List<Stall> kept = new ArrayList<>();
+        StringBuilder report = new StringBuilder();
+        synchronized (lock) {
+            report.append(String.format(Locale.US,
+                    "Main thread watchdog (%s): %d frames, %d overruns, %d during bridge work (%d frames missed)%n",
+                    enabled ? "enabled" : "disabled", frames, frameOverruns, overrunsDuringBridgeWork,
+                    framesMissedDuringBridgeWork));
+            for (Map.Entry<String, EntryPointStats> entry : entryPoints.entrySet()) {
+                EntryPointStats stats = entry.getValue();
+                report.append(String.format(Locale.US, "  %s: %d calls, %.1f ms total, %.1f ms max%n",
+                        entry.getKey(), stats.calls, stats.totalNanos / 1e6, stats.maxNanos / 1e6));
+            }
+            for (Stall stall : stalls) {
+                if (stall != null) {
+                    kept.add(stall);
+                }
+            }
+            report.append(String.format(Locale.US, "Calls over %.1f ms: %d, longest %d kept%n",
+                    thresholdNanos / 1e6, totalStalls, kept.size()));
+        }
+
+        Collections.sort(kept, new Comparator<Stall>() {
+            @Override
+            public int compare(Stall a, Stall b) {
+                return Long.compare(b.durationNanos, a.durationNanos);
+            }
+        });
+        for (Stall stall : kept) {
+            report.append(String.format(Locale.US, "  %.1f ms in %s (%s) at uptime %d ms%n",
+                    stall.durationNanos / 1e6, stall.entryPoint, stall.requestType, stall.uptimeMillis));
+            for (StackTraceElement element : stall.stack) {
+                report.append("    at ").append(element).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /** Keeps {@code stall} if there is room or it is longer than the shortest one kept. */
+    private static void keepLocked(Stall stall) {
+        if (keptStalls < stalls.length) {
+            stalls[keptStalls++] = stall;
+            return;
+        }
+        int shortest = 0;
+        for (int i = 1; i < stalls.length; i++) {
+            if (stalls[i].durationNanos < stalls[shortest].durationNanos) {
+                shortest = i;
+            }
+        }
+        if (stall.durationNanos > stalls[shortest].durationNanos) {
+            stalls[shortest] = stall;
+        }
+    }
+
+    private static void resetLocked() {
+        Arrays.fill(stalls, null);
+        keptStalls = 0;
+        totalStalls = 0;
+        entryPoints.clear();
+        bridgeWorkSinceLastFrame = false;
+        frames = 0;
+        frameOverruns = 0;
+        overrunsDuringBridgeWork = 0;
+        framesMissedDuringBridgeWork = 0;
+    }
+}
@@ -44,11 +44,14 @@ public final class NativeBridgeActivity extends Activity {
     // This method should be implemented by invoking gpg::AndroidSupport::OnActivityResult
     private native void forwardActivityResult(int requestCode, int resultCode, Intent data);
 
-    static {
-        System.loadLibrary("gpg");
-    }
+    // Same as forwardActivityResult, for results received by another activity.
+    private static native void forwardActivityResultFor(Activity activity, int requestCode, int resultCode,
+            Intent data);
 
     public void onCreate(Bundle savedInstanceState) {
+        // The library is normally loaded by launchBridgeIntent already; this
+        // covers the activity being recreated in a new process.
+        BridgeStartup.loadNativeLibrary();
         View v = new View(this);
         v.setBackgroundColor(BG_COLOR);
         setContentView(v);
@@ -104,14 +107,35 @@ public final class NativeBridgeActivity extends Activity {
     }
 
     public static void launchBridgeIntent(Activity parentActivity, Intent intent) {
+        BridgeStartup.loadNativeLibrary();
 
+        if (HelperFragment.isDirectLaunchEnabled() && HelperFragment.launchBridgeIntent(parentActivity, intent)) {
+            Log.d(TAG, "Launching bridged intent from helper fragment: parent:" + parentActivity + " intent "
+                    + intent);
+            return;
+        }
+        launchBridgeActivity(parentActivity, intent);
+    }
 
+    /**
+     * Launches {@code intent} through this activity, e.g. when
+     * {@link NativeBridgeRequest} could not start it from the helper fragment.
+     */
+    static void launchBridgeActivity(Activity parentActivity, Intent intent) {
         Log.d(TAG, "Launching bridge activity: parent:" + parentActivity + " intent " + intent);
         Intent bridgeIntent = new Intent(parentActivity, NativeBridgeActivity.class);
         bridgeIntent.putExtra(BRIDGED_INTENT, intent);
         parentActivity.startActivity(bridgeIntent);
     }
 
+    /**
+     * Forwards the result of a bridged intent that was launched without this
+     * activity, see {@link NativeBridgeRequest}.
+     */
+    static void forwardResult(Activity activity, int resultCode, Intent data) {
+        forwardActivityResultFor(activity, GPG_RESPONSE_CODE, resultCode, data);
+    }
+
     /**
      * Perform any final cleanup before an activity is destroyed.  This can
      * happen either because the activity is finishing (someone called
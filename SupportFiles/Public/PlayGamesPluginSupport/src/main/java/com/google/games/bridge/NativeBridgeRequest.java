@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.app.Activity;
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Launches an intent from the native SDK on the {@link HelperFragment} and
+ * forwards its result to the SDK, without starting
+ * {@link NativeBridgeActivity}. If the fragment cannot start the intent, it is
+ * handed to {@link NativeBridgeActivity} instead.
+ */
+class NativeBridgeRequest implements HelperFragment.Request {
+    private static final String TAG = "NativeBridgeRequest";
+
+    private final Activity parentActivity;
+    private final Intent intent;
+    // Guards against forwarding a result twice, e.g. a late result after the
+    // fragment was destroyed and a canceled result was already sent.
+    private boolean forwarded;
+
+    NativeBridgeRequest(Activity parentActivity, Intent intent) {
+        this.parentActivity = parentActivity;
+        this.intent = intent;
+    }
+
+    public void process(HelperFragment helperFragment) {
+        long start = MainThreadWatchdog.begin();
+        try {
+            Log.d(TAG, "starting GPG activity: " + intent);
+            helperFragment.startActivityForResult(intent, HelperFragment.RC_NATIVE_BRIDGE);
+        } catch (ActivityNotFoundException e) {
+            Log.w(TAG, "Cannot start GPG activity from the fragment, falling back to the bridge activity: "
+                    + e.getMessage());
+            synchronized (this) {
+                // The bridge activity forwards the result from now on.
+                forwarded = true;
+            }
+            HelperFragment.finishRequest(this);
+            NativeBridgeActivity.launchBridgeActivity(parentActivity, intent);
+        } finally {
+            MainThreadWatchdog.end("NativeBridgeRequest.process", getClass(), start);
+        }
+    }
+
+    public void onActivityResult(int requestCode, int resultCode, Intent data) {
+        if (requestCode == HelperFragment.RC_NATIVE_BRIDGE) {
+            Log.d(TAG, "Forwarding activity result to native SDK.");
+            forwardResult(resultCode, data);
+        } else {
+            Log.d(TAG, "onActivityResult for unknown request code: " + requestCode);
+        }
+    }
+
+    /**
+     * Called when the fragment goes away for good with the result still
+     * pending; the SDK is told the activity was canceled, as
+     * {@link NativeBridgeActivity#onDestroy()} does.
+     */
+    void cancel() {
+        Log.w(TAG, "Fragment destroyed with a pending result. Forwarding canceled result");
+        forwardResult(Activity.RESULT_CANCELED, null);
+    }
+
+    private void forwardResult(int resultCode, Intent data) {
+        synchronized (this) {
+            if (forwarded) {
+                return;
+            }
+            forwarded = true;
+        }
+        HelperFragment.finishRequest(this);
+        NativeBridgeActivity.forwardResult(parentActivity, resultCode, data);
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.util.Log;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.nearby.connection.Payload;
+import com.google.android.gms.nearby.connection.PayloadTransferUpdate;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.Task;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends Nearby messages to several endpoints without letting a slow endpoint
+ * hold back the others.
+ *
+ * <p>A broadcast message is converted to bytes once and queued for every
+ * recipient. Each endpoint has its own bounded queue and a cap on the bytes it
+ * may have in flight; an endpoint at its cap simply stops being served until
+ * its transfers complete. A full queue drops unreliable messages; reliable
+ * ones are never dropped and are queued past the limit instead. Endpoints with room are served by smooth weighted
+ * round-robin, and every ready endpoint whose next message is the same one is
+ * folded into a single {@code sendPayload} call.
+ *
+ * <p>Completion is learned from {@link PayloadTransferUpdate}s, which the
+ * {@link PayloadCallbackProxy} of each connection forwards to
+ * {@link #onPayloadTransferUpdate(String, PayloadTransferUpdate)}.
+ */
+public class NearbyBroadcaster implements PayloadCallbackProxy.TransferUpdateListener {
+    private static final String TAG = "NearbyBroadcaster";
+
+    static final int DEFAULT_WEIGHT = 1;
+    static final int DEFAULT_MAX_QUEUED_MESSAGES = 32;
+    static final int DEFAULT_MAX_IN_FLIGHT_BYTES = 16 * 1024;
+
+    /** The subset of {@link ConnectionsClient} the broadcaster sends through. */
+    interface PayloadSender {
+        Task<Void> sendPayload(List<String> endpointIds, Payload payload);
+    }
+
+    /** Per-endpoint send statistics; a snapshot taken by {@link #getStats(String)}. */
+    public static final class EndpointStats {
+        public final int queueDepth;
+        public final int inFlightMessages;
+        public final long inFlightBytes;
+        public final long sentMessages;
+        public final long droppedMessages;
+        public final long overLimitMessages;
+        public final long failedMessages;
+        public final double lastSendLatencyMillis;
+        public final double averageSendLatencyMillis;
+        public final double maxSendLatencyMillis;
+
+        EndpointStats(Endpoint endpoint) {
+            queueDepth = endpoint.queue.size();
+            inFlightMessages = endpoint.inFlight.size();
+            inFlightBytes = endpoint.inFlightBytes;
+            sentMessages = endpoint.sentMessages;
+            droppedMessages = endpoint.droppedMessages;
+            overLimitMessages = endpoint.overLimitMessages;
+            failedMessages = endpoint.failedMessages;
+            lastSendLatencyMillis = endpoint.lastLatencyNanos / 1e6;
+            averageSendLatencyMillis =
+                    endpoint.completedMessages == 0
+                            ? 0
+                            : endpoint.totalLatencyNanos / 1e6 / endpoint.completedMessages;
+            maxSendLatencyMillis = endpoint.maxLatencyNanos / 1e6;
+        }
+    }
+
+    private static final class Message {
+        final byte[] bytes;
+        final long enqueuedAtNanos;
+
+        Message(byte[] bytes, long enqueuedAtNanos) {
+            this.bytes = bytes;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+
+    private static final class Endpoint {
+        String id;
+        final ArrayDeque<Message> queue = new ArrayDeque<>();
+        // Payload id -> message, for the transfers this endpoint has not finished.
+        final Map<Long, Message> inFlight = new HashMap<>();
+        int weight;
+        int maxQueuedMessages;
+        long maxInFlightBytes;
+        long inFlightBytes;
+        // Smooth weighted round-robin state.
+        int currentWeight;
+
+        long sentMessages;
+        long droppedMessages;
+        // Reliable messages queued past maxQueuedMessages.
+        long overLimitMessages;
+        long failedMessages;
+        long completedMessages;
+        long lastLatencyNanos;
+        long maxLatencyNanos;
+        long totalLatencyNanos;
+
+        Endpoint(String id) {
+            this.id = id;
+            this.weight = DEFAULT_WEIGHT;
+            this.maxQueuedMessages = DEFAULT_MAX_QUEUED_MESSAGES;
+            this.maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+        }
+
+        boolean isReady() {
+            Message head = queue.peek();
+            // An idle endpoint always takes its next message, even an oversized one.
+            return head != null
+                    && (inFlight.isEmpty() || inFlightBytes + head.bytes.length <= maxInFlightBytes);
+        }
+    }
+
+    private final Object lock = new Object();
+    private final PayloadSender sender;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private volatile NearbyCompression compression;
+    private boolean pumping;
+    private boolean pumpRequested;
+
+    public NearbyBroadcaster(final ConnectionsClient client) {
+        this(new PayloadSender() {
+            @Override
+            public Task<Void> sendPayload(List<String> endpointIds, Payload payload) {
+                return client.sendPayload(endpointIds, payload);
+            }
+        });
+    }
+
+    NearbyBroadcaster(PayloadSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Compresses messages to the endpoints that negotiated it. The message is
+     * compressed once for all of them.
+     */
+    public void setCompression(NearbyCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets how an endpoint is served. A higher {@code weight} gets
+     * proportionally more sends when several endpoints are ready.
+     */
+    public void configureEndpoint(String endpointId, int weight, int maxQueuedMessages, long maxInFlightBytes) {
+        if (weight < 1 || maxQueuedMessages < 1 || maxInFlightBytes < 1) {
+            throw new IllegalArgumentException("weight, maxQueuedMessages and maxInFlightBytes must be positive");
+        }
+        synchronized (lock) {
+            Endpoint endpoint = getOrAddEndpoint(endpointId);
+            endpoint.weight = weight;
+            endpoint.maxQueuedMessages = maxQueuedMessages;
+            endpoint.maxInFlightBytes = maxInFlightBytes;
+        }
+        pump();
+    }
+
+    /**
+     * Queues {@code message} for every endpoint in {@code endpointIds}. Returns
+     * the number of endpoints it was queued for; endpoints whose queue is full
+     * drop the message.
+     */
+    public int broadcast(List<String> endpointIds, byte[] message) {
+        return broadcast(endpointIds, message, /* ignoreQueueLimit= */ false);
+    }
+
+    /**
+     * Queues {@code message} for every endpoint in {@code endpointIds} without
+     * ever dropping it: an endpoint whose queue is full takes it anyway and
+     * counts it in {@link EndpointStats#overLimitMessages}.
+     */
+    public void broadcastReliable(List<String> endpointIds, byte[] message) {
+        broadcast(endpointIds, message, /* ignoreQueueLimit= */ true);
+    }
+
+    /**
+     * Queues a burst of messages for one endpoint even past its queue limit,
+     * e.g. a replay that is already bounded by its own buffer.
+     */
+    void enqueueAll(String endpointId, List<byte[]> messages) {
+        List<String> endpointIds = Collections.singletonList(endpointId);
+        for (byte[] message : messages) {
+            broadcast(endpointIds, message, /* ignoreQueueLimit= */ true);
+        }
+    }
+
+    private int broadcast(List<String> endpointIds, byte[] message, boolean ignoreQueueLimit) {
+        long now = System.nanoTime();
+        Message plain = new Message(message, now);
+        NearbyCompression.Encoder encoder = null;
+        Message framed = null;
+        NearbyCompression compression = this.compression;
+        int accepted = 0;
+        synchronized (lock) {
+            for (String endpointId : endpointIds) {
+                Endpoint endpoint = getOrAddEndpoint(endpointId);
+                if (endpoint.queue.size() >= endpoint.maxQueuedMessages) {
+                    if (!ignoreQueueLimit) {
+                        endpoint.droppedMessages++;
+                        continue;
+                    }
+                    if (endpoint.queue.size() == endpoint.maxQueuedMessages) {
+                        Log.w(TAG, "Send queue for " + endpointId + " is full; queueing reliable messages past "
+                                + endpoint.maxQueuedMessages);
+                    }
+                    endpoint.overLimitMessages++;
+                }
+                if (compression != null && compression.isNegotiated(endpointId)) {
+                    if (encoder == null) {
+                        encoder = compression.newEncoder(message);
+                    }
+                    // Endpoints share the raw or the deflated frame.
+                    byte[] frame = encoder.encode(endpointId);
+                    if (framed == null || framed.bytes != frame) {
+                        framed = new Message(frame, now);
+                    }
+                    endpoint.queue.add(framed);
+                } else {
+                    endpoint.queue.add(plain);
+                }
+                accepted++;
+            }
+        }
+        pump();
+        return accepted;
+    }
+
+    /**
+     * Forgets an endpoint, dropping whatever is still queued for it. Should be
+     * called once the endpoint disconnects.
+     */
+    public void removeEndpoint(String endpointId) {
+        synchronized (lock) {
+            endpoints.remove(endpointId);
+        }
+    }
+
+    /**
+     * Drops whatever is queued or in flight for an endpoint but keeps its
+     * weights, limits and statistics, e.g. while its session is suspended.
+     */
+    void clearEndpoint(String endpointId) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.get(endpointId);
+            if (endpoint != null) {
+                endpoint.queue.clear();
+                endpoint.inFlight.clear();
+                endpoint.inFlightBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Carries an endpoint's weights, limits and statistics over to the new id
+     * of the same peer, e.g. when a session resumes on a new connection.
+     */
+    void moveEndpoint(String fromEndpointId, String toEndpointId) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.remove(fromEndpointId);
+            if (endpoint == null) {
+                return;
+            }
+            endpoint.queue.clear();
+            endpoint.inFlight.clear();
+            endpoint.inFlightBytes = 0;
+            Endpoint existing = endpoints.get(toEndpointId);
+            if (existing != null) {
+                existing.weight = endpoint.weight;
+                existing.maxQueuedMessages = endpoint.maxQueuedMessages;
+                existing.maxInFlightBytes = endpoint.maxInFlightBytes;
+                return;
+            }
+            endpoint.id = toEndpointId;
+            endpoints.put(toEndpointId, endpoint);
+        }
+    }
+
+    /** Forgets every endpoint, e.g. after all connections were stopped. */
+    public void removeAllEndpoints() {
+        synchronized (lock) {
+            endpoints.clear();
+        }
+    }
+
+    public EndpointStats getStats(String endpointId) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.get(endpointId);
+            return endpoint == null ? null : new EndpointStats(endpoint);
+        }
+    }
+
+    public int getQueueDepth(String endpointId) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.get(endpointId);
+            return endpoint == null ? 0 : endpoint.queue.size();
+        }
+    }
+
+    public long getInFlightBytes(String endpointId) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.get(endpointId);
+            return endpoint == null ? 0 : endpoint.inFlightBytes;
+        }
+    }
+
+    @Override
+    public void onPayloadTransferUpdate(String endpointId, PayloadTransferUpdate update) {
+        int status = update.getStatus();
+        if (status == PayloadTransferUpdate.Status.IN_PROGRESS) {
+            return;
+        }
+        completeTransfer(endpointId, update.getPayloadId(), status == PayloadTransferUpdate.Status.SUCCESS);
+    }
+
+    private void completeTransfer(String endpointId, long payloadId, boolean success) {
+        synchronized (lock) {
+            Endpoint endpoint = endpoints.get(endpointId);
+            if (endpoint == null) {
+                return;
+            }
+            Message message = endpoint.inFlight.remove(payloadId);
+            if (message == null) {
+                return;
+            }
+            endpoint.inFlightBytes -= message.bytes.length;
+            if (success) {
+                long latency = System.nanoTime() - message.enqueuedAtNanos;
+                endpoint.completedMessages++;
+                endpoint.lastLatencyNanos = latency;
+                endpoint.totalLatencyNanos += latency;
+                endpoint.maxLatencyNanos = Math.max(endpoint.maxLatencyNanos, latency);
+            } else {
+                endpoint.failedMessages++;
+            }
+        }
+        pump();
+    }
+
+    private Endpoint getOrAddEndpoint(String endpointId) {
+        Endpoint endpoint = endpoints.get(endpointId);
+        if (endpoint == null) {
+            endpoint = new Endpoint(endpointId);
+            endpoints.put(endpointId, endpoint);
+        }
+        return endpoint;
+    }
+
+    /**
+     * Sends as much as the in-flight caps allow. Re-entrant calls, e.g. from a
+     * sender that reports completion synchronously, are folded into the
+     * running pass.
+     */
+    private void pump() {
+        synchronized (lock) {
+            if (pumping) {
+                pumpRequested = true;
+                return;
+            }
+            pumping = true;
+        }
+        try {
+            while (true) {
+                List<String> recipients;
+                Payload payload;
+                synchronized (lock) {
+                    Endpoint next = pickNext();
+                    if (next == null) {
+                        if (!pumpRequested) {
+                            pumping = false;
+                            return;
+                        }
+                        pumpRequested = false;
+                        continue;
+                    }
+                    Message message = next.queue.peek();
+                    payload = Payload.fromBytes(message.bytes);
+                    recipients = new ArrayList<>();
+                    for (Endpoint endpoint : endpoints.values()) {
+                        if (endpoint.queue.peek() == message && (endpoint == next || endpoint.isReady())) {
+                            endpoint.queue.poll();
+                            endpoint.inFlight.put(payload.getId(), message);
+                            endpoint.inFlightBytes += message.bytes.length;
+                            endpoint.sentMessages++;
+                            recipients.add(endpoint.id);
+                        }
+                    }
+                }
+                sendPayload(recipients, payload);
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pumping = false;
+            }
+            throw e;
+        }
+    }
+
+    private void sendPayload(final List<String> recipients, final Payload payload) {
+        sender.sendPayload(recipients, payload)
+            .addOnFailureListener(
+                new OnFailureListener() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        Log.w(TAG, "sendPayload to " + recipients + " failed: " + e.getMessage());
+                        for (String endpointId : recipients) {
+                            completeTransfer(endpointId, payload.getId(), /* success= */ false);
+                        }
+                    }
+                });
+    }
+
+    /** Smooth weighted round-robin over the endpoints that can send now. */
+    private Endpoint pickNext() {
+        Endpoint best = null;
+        int totalWeight = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            if (!endpoint.isReady()) {
+                continue;
+            }
+            endpoint.currentWeight += endpoint.weight;
+            totalWeight += endpoint.weight;
+            if (best == null || endpoint.currentWeight > best.currentWeight) {
+                best = endpoint;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.util.Log;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Optional deflate compression of Nearby messages.
+ *
+ * <p>Support is negotiated through the endpoint names both sides already
+ * exchange: {@link #getAdvertisedName(String)} appends a short capability
+ * token naming the preset dictionary, and when
+ * {@link ConnectionLifecycleCallbackProxy} sees the peer's name in
+ * {@code onConnectionInitiated} it calls
+ * {@link #onConnectionInitiated(String, String)}. Compression is used on a
+ * connection only if both sides advertise the same dictionary; other peers
+ * keep getting plain messages.
+ *
+ * <p>On a negotiated connection every message starts with a one byte header,
+ * raw or deflated. Messages below the size threshold are sent raw, and when
+ * the compression ratio measured for an endpoint is poor compression to that
+ * endpoint is suspended, with an occasional probe to find out whether the data
+ * compresses again. The receiving side does not need to know either decision.
+ */
+public class NearbyCompression {
+    private static final String TAG = "NearbyCompression";
+
+    static final byte FRAME_RAW = 0;
+    static final byte FRAME_DEFLATED = 1;
+    // Header byte plus the big-endian length of the inflated message.
+    private static final int DEFLATED_HEADER_SIZE = 5;
+
+    private static final char TOKEN_KEY = 'z';
+    private static final int MAX_INFLATED_SIZE = 1024 * 1024;
+
+    static final int DEFAULT_MIN_MESSAGE_BYTES = 128;
+    static final double DEFAULT_MAX_RATIO = 0.9;
+    // Number of compressed messages before the ratio is trusted, and number
+    // of eligible messages sent raw before compression is tried again.
+    private static final int RATIO_WARMUP_MESSAGES = 8;
+    private static final int PROBE_INTERVAL_MESSAGES = 64;
+    private static final double RATIO_SMOOTHING = 0.125;
+
+    /**
+     * Compression statistics; a snapshot taken by {@link #getStats()}. Message
+     * and byte counts are per endpoint a message was framed for.
+     * {@code compressionRatio} is the mean of the negotiated endpoints' ratios.
+     */
+    public static final class Stats {
+        public final boolean suspended;
+        public final int suspendedEndpoints;
+        public final long messagesCompressed;
+        public final long messagesBelowThreshold;
+        public final long messagesSentRaw;
+        public final long bytesBeforeCompression;
+        public final long bytesAfterCompression;
+        public final long bytesSaved;
+        public final double compressionRatio;
+        public final double compressTimeMillis;
+        public final double decompressTimeMillis;
+
+        Stats(NearbyCompression compression) {
+            int suspendedCount = 0;
+            double ratioSum = 0;
+            for (EndpointState state : compression.negotiatedEndpoints.values()) {
+                if (state.suspended) {
+                    suspendedCount++;
+                }
+                ratioSum += state.ratio;
+            }
+            int endpoints = compression.negotiatedEndpoints.size();
+            suspended = suspendedCount > 0;
+            suspendedEndpoints = suspendedCount;
+            messagesCompressed = compression.messagesCompressed;
+            messagesBelowThreshold = compression.messagesBelowThreshold;
+            messagesSentRaw = compression.messagesSentRaw;
+            bytesBeforeCompression = compression.bytesBeforeCompression;
+            bytesAfterCompression = compression.bytesAfterCompression;
+            bytesSaved = bytesBeforeCompression - bytesAfterCompression;
+            compressionRatio = endpoints == 0 ? 1 : ratioSum / endpoints;
+            compressTimeMillis = compression.compressNanos / 1e6;
+            decompressTimeMillis = compression.decompressNanos / 1e6;
+        }
+    }
+
+    /** The adaptive state of one negotiated endpoint. */
+    private static final class EndpointState {
+        boolean suspended;
+        int probeCountdown;
+        double ratio = 1;
+        long compressionAttempts;
+    }
+
+    /**
+     * Frames one message for any number of negotiated endpoints. The message
+     * is deflated at most once; each endpoint gets the deflated or the raw
+     * frame depending on its own ratio.
+     */
+    final class Encoder {
+        private final byte[] message;
+        private byte[] rawFrame;
+        private byte[] deflatedFrame;
+        // Compressed size over original size; negative until deflated.
+        private double sample = -1;
+
+        private Encoder(byte[] message) {
+            this.message = message;
+        }
+
+        byte[] encode(String endpointId) {
+            synchronized (deflateLock) {
+                if (message.length < minMessageBytes) {
+                    messagesBelowThreshold++;
+                    return raw();
+                }
+                EndpointState state;
+                synchronized (negotiatedEndpoints) {
+                    state = negotiatedEndpoints.get(endpointId);
+                }
+                if (state == null) {
+                    // Not negotiated (any more); a fresh state keeps the frame valid.
+                    state = new EndpointState();
+                }
+                if (state.suspended && --state.probeCountdown > 0) {
+                    messagesSentRaw++;
+                    return raw();
+                }
+                if (sample < 0) {
+                    deflate();
+                }
+                updateRatio(endpointId, state, sample);
+                if (deflatedFrame == null) {
+                    messagesSentRaw++;
+                    return raw();
+                }
+                messagesCompressed++;
+                bytesBeforeCompression += message.length;
+                bytesAfterCompression += deflatedFrame.length;
+                return deflatedFrame;
+            }
+        }
+
+        private byte[] raw() {
+            if (rawFrame == null) {
+                rawFrame = frameRaw(message);
+            }
+            return rawFrame;
+        }
+
+        private void deflate() {
+            long start = System.nanoTime();
+            int deflatedSize = NearbyCompression.this.deflate(message);
+            compressNanos += System.nanoTime() - start;
+            sample = deflatedSize < 0
+                    ? 1
+                    : (double) (deflatedSize + DEFLATED_HEADER_SIZE) / (message.length + 1);
+            if (sample >= 1) {
+                return;
+            }
+            deflatedFrame = new byte[DEFLATED_HEADER_SIZE + deflatedSize];
+            deflatedFrame[0] = FRAME_DEFLATED;
+            deflatedFrame[1] = (byte) (message.length >>> 24);
+            deflatedFrame[2] = (byte) (message.length >>> 16);
+            deflatedFrame[3] = (byte) (message.length >>> 8);
+            deflatedFrame[4] = (byte) message.length;
+            System.arraycopy(deflateBuffer, 0, deflatedFrame, DEFLATED_HEADER_SIZE, deflatedSize);
+        }
+    }
+
+    private final Object deflateLock = new Object();
+    private final Object inflateLock = new Object();
+    // Negotiated endpoint id -> its adaptive state.
+    private final Map<String, EndpointState> negotiatedEndpoints = new HashMap<>();
+
+    private volatile boolean enabled;
+    private byte[] dictionary;
+    private long dictionaryId;
+    private int minMessageBytes = DEFAULT_MIN_MESSAGE_BYTES;
+    private double maxRatio = DEFAULT_MAX_RATIO;
+
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] deflateBuffer = new byte[0];
+
+    // Guarded by deflateLock.
+    private long messagesCompressed;
+    private long messagesBelowThreshold;
+    private long messagesSentRaw;
+    private long bytesBeforeCompression;
+    private long bytesAfterCompression;
+    private long compressNanos;
+    // Guarded by inflateLock.
+    private long decompressNanos;
+
+    /**
+     * Turns compression on. Must be called before advertising or connecting,
+     * since it changes the advertised endpoint name. Both sides must use the
+     * same {@code dictionary}, which may be null.
+     */
+    public void enable(byte[] dictionary, int minMessageBytes, double maxRatio) {
+        if (minMessageBytes < 0 || maxRatio <= 0) {
+            throw new IllegalArgumentException("minMessageBytes must not be negative and maxRatio must be positive");
+        }
+        synchronized (deflateLock) {
+            synchronized (inflateLock) {
+                this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary.clone();
+                Adler32 adler = new Adler32();
+                if (this.dictionary != null) {
+                    adler.update(this.dictionary, 0, this.dictionary.length);
+                }
+                this.dictionaryId = adler.getValue();
+                this.minMessageBytes = minMessageBytes;
+                this.maxRatio = maxRatio;
+                this.deflater = new Deflater(Deflater.BEST_SPEED, /* nowrap= */ true);
+                this.inflater = new Inflater(/* nowrap= */ true);
+                synchronized (negotiatedEndpoints) {
+                    negotiatedEndpoints.clear();
+                }
+                this.enabled = true;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Returns {@code name} with this side's capability token, if enabled. */
+    public String getAdvertisedName(String name) {
+        if (!enabled) {
+            return name;
+        }
+        return EndpointNames.withToken(name, TOKEN_KEY, Long.toHexString(dictionaryId));
+    }
+
+    /** Strips the capability tokens, if any, from an endpoint name. */
+    public static String getDisplayName(String advertisedName) {
+        return EndpointNames.getDisplayName(advertisedName);
+    }
+
+    /** Decides whether messages to and from {@code endpointId} are framed. */
+    public void onConnectionInitiated(String endpointId, String peerAdvertisedName) {
+        boolean negotiated = false;
+        if (enabled) {
+            negotiated = Long.toHexString(dictionaryId)
+                    .equals(EndpointNames.getToken(peerAdvertisedName, TOKEN_KEY));
+        }
+        synchronized (negotiatedEndpoints) {
+            if (negotiated) {
+                negotiatedEndpoints.put(endpointId, new EndpointState());
+            } else {
+                negotiatedEndpoints.remove(endpointId);
+            }
+        }
+    }
+
+    public void removeEndpoint(String endpointId) {
+        synchronized (negotiatedEndpoints) {
+            negotiatedEndpoints.remove(endpointId);
+        }
+    }
+
+    public boolean isNegotiated(String endpointId) {
+        synchronized (negotiatedEndpoints) {
+            return negotiatedEndpoints.containsKey(endpointId);
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (deflateLock) {
+            synchronized (inflateLock) {
+                synchronized (negotiatedEndpoints) {
+                    return new Stats(this);
+                }
+            }
+        }
+    }
+
+    /** Returns an encoder that frames {@code message} for negotiated endpoints. */
+    Encoder newEncoder(byte[] message) {
+        return new Encoder(message);
+    }
+
+    /** Frames {@code message} for {@code endpointId}, deflating it if worthwhile. */
+    byte[] encode(String endpointId, byte[] message) {
+        return new Encoder(message).encode(endpointId);
+    }
+
+    /**
+     * Undoes {@link #encode(String, byte[])} for a message received on a negotiated
+     * connection. Returns null if the frame is malformed.
+     */
+    byte[] decode(byte[] frame) {
+        if (frame.length == 0) {
+            return null;
+        }
+        if (frame[0] == FRAME_RAW) {
+            byte[] message = new byte[frame.length - 1];
+            System.arraycopy(frame, 1, message, 0, message.length);
+            return message;
+        }
+        if (frame[0] != FRAME_DEFLATED || frame.length < DEFLATED_HEADER_SIZE) {
+            return null;
+        }
+        int length = ((frame[1] & 0xff) << 24) | ((frame[2] & 0xff) << 16) | ((frame[3] & 0xff) << 8)
+                | (frame[4] & 0xff);
+        if (length < 0 || length > MAX_INFLATED_SIZE) {
+            return null;
+        }
+        synchronized (inflateLock) {
+            long start = System.nanoTime();
+            try {
+                byte[] message = new byte[length];
+                inflater.reset();
+                if (dictionary != null) {
+                    inflater.setDictionary(dictionary);
+                }
+                inflater.setInput(frame, DEFLATED_HEADER_SIZE, frame.length - DEFLATED_HEADER_SIZE);
+                int inflated = 0;
+                while (inflated < length && !inflater.finished()) {
+                    int count = inflater.inflate(message, inflated, length - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                return inflated == length ? message : null;
+            } catch (DataFormatException e) {
+                Log.w(TAG, "Dropping malformed compressed message: " + e.getMessage());
+                return null;
+            } finally {
+                decompressNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /** Deflates into {@link #deflateBuffer}; returns -1 if it would not shrink the message. */
+    private int deflate(byte[] message) {
+        if (deflateBuffer.length < message.length) {
+            deflateBuffer = new byte[message.length];
+        }
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(message);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == deflateBuffer.length) {
+                return -1;
+            }
+            size += deflater.deflate(deflateBuffer, size, deflateBuffer.length - size);
+        }
+        return size;
+    }
+
+    private void updateRatio(String endpointId, EndpointState state, double sample) {
+        long attempts = ++state.compressionAttempts;
+        state.ratio = attempts == 1 ? sample : state.ratio + RATIO_SMOOTHING * (sample - state.ratio);
+        if (state.suspended) {
+            // This was a probe; resume only if it compressed well.
+            state.suspended = sample > maxRatio;
+            if (!state.suspended) {
+                state.ratio = sample;
+            }
+        } else if (attempts >= RATIO_WARMUP_MESSAGES && state.ratio > maxRatio) {
+            Log.i(TAG, "Suspending compression to " + endpointId + ", ratio " + state.ratio);
+            state.suspended = true;
+        }
+        if (state.suspended) {
+            state.probeCountdown = PROBE_INTERVAL_MESSAGES;
+        }
+    }
+
+    private static byte[] frameRaw(byte[] message) {
+        byte[] frame = new byte[message.length + 1];
+        frame[0] = FRAME_RAW;
+        System.arraycopy(message, 0, frame, 1, message.length);
+        return frame;
+    }
+}
@@ -0,0 +1,748 @@
+/*
+ * Copyright (C) Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.games.bridge;
+
+import android.util.Log;
+import com.google.android.gms.nearby.connection.ConnectionsClient;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.Task;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps Nearby connections alive across short radio dropouts.
+ *
+ * <p>A session is negotiated through an endpoint name token: the advertiser
+ * announces support, the requester sends a random session id. Once both
+ * sides agree, every message on the connection carries a frame header, and
+ * reliable messages get a sequence number. Sent reliable messages stay in a
+ * bounded replay buffer until the peer acknowledges them.
+ *
+ * <p>When the connection drops, the session is suspended instead of being
+ * reported as disconnected. The requester reconnects to the same endpoint
+ * with exponential backoff, and the advertiser accepts the connection that
+ * carries the same session id without asking the game. After reconnecting,
+ * each side tells the other the last sequence number it received and only
+ * the messages after it are replayed. If the session cannot be resumed within
+ * the timeout, or the replay buffer overflowed, the disconnect is reported as
+ * before.
+ *
+ * <p>The game keeps using the endpoint id of the first connection; the
+ * manager maps it to the id of the current connection.
+ *
+ * <p>Connection requests carry bridge tokens, this manager's and those other
+ * features added to the name, only to advertisers whose discovered name
+ * carried tokens too; other peers would show the tokens to the user.
+ */
+public class NearbySessionManager {
+    private static final String TAG = "NearbySessionManager";
+
+    private static final char TOKEN_KEY = 's';
+
+    static final byte FRAME_RELIABLE = 1;
+    static final byte FRAME_UNRELIABLE = 2;
+    static final byte FRAME_ACK = 3;
+    static final byte FRAME_RESUME = 4;
+    private static final int SEQUENCE_HEADER_SIZE = 9;
+
+    static final int DEFAULT_MAX_REPLAY_MESSAGES = 256;
+    static final int DEFAULT_RESUME_TIMEOUT_MILLIS = 30_000;
+    static final long INITIAL_BACKOFF_MILLIS = 250;
+    static final long MAX_BACKOFF_MILLIS = 8_000;
+    static final long ACK_DELAY_MILLIS = 50;
+
+    static final int STATE_PENDING = 0;
+    static final int STATE_CONNECTED = 1;
+    static final int STATE_SUSPENDED = 2;
+    static final int STATE_ACCEPTING = 3;
+    static final int STATE_REPLAYING = 4;
+    static final int STATE_CLOSED = 5;
+
+    private static ScheduledExecutorService defaultScheduler;
+
+    /** Session statistics; a snapshot taken by {@link #getStats(String)}. */
+    public static final class SessionStats {
+        public final int state;
+        public final int replayBufferSize;
+        public final boolean resumable;
+        public final long lastReceivedSequence;
+        public final int resumes;
+        public final int reconnectAttempts;
+        public final long replayedMessages;
+        public final long duplicateMessages;
+
+        SessionStats(Session session) {
+            state = session.state;
+            replayBufferSize = session.replay.size();
+            resumable = session.resumable;
+            lastReceivedSequence = session.lastReceivedSequence;
+            resumes = session.resumes;
+            reconnectAttempts = session.reconnectAttempts;
+            replayedMessages = session.replayedMessages;
+            duplicateMessages = session.duplicateMessages;
+        }
+    }
+
+    private static final class SentMessage {
+        final long sequence;
+        final byte[] frame;
+
+        SentMessage(long sequence, byte[] frame) {
+            this.sequence = sequence;
+            this.frame = frame;
+        }
+    }
+
+    private static final class Session {
+        final String sessionId;
+        final String stableEndpointId;
+        final boolean requester;
+        final String requestName;
+        final ConnectionLifecycleCallbackProxy lifecycleCallback;
+        final ArrayDeque<SentMessage> replay = new ArrayDeque<>();
+        String endpointId;
+        PayloadCallbackProxy payloadCallback;
+        int state = STATE_PENDING;
+        boolean resumable = true;
+        long lastReceivedSequence;
+        long lastAckedSequence;
+        boolean ackScheduled;
+        int attempt;
+        ScheduledFuture<?> resumeTimeout;
+
+        int resumes;
+        int reconnectAttempts;
+        long replayedMessages;
+        long duplicateMessages;
+
+        Session(String sessionId, String endpointId, boolean requester, String requestName,
+                ConnectionLifecycleCallbackProxy lifecycleCallback) {
+            this.sessionId = sessionId;
+            this.stableEndpointId = endpointId;
+            this.endpointId = endpointId;
+            this.requester = requester;
+            this.requestName = requestName;
+            this.lifecycleCallback = lifecycleCallback;
+        }
+
+        boolean isFramed() {
+            return state == STATE_CONNECTED || state == STATE_REPLAYING;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final ConnectionsClient client;
+    private final NearbyBroadcaster broadcaster;
+    private final ScheduledExecutorService scheduler;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, Session> sessionsById = new HashMap<>();
+    // Current endpoint id -> session.
+    private final Map<String, Session> sessionsByEndpoint = new HashMap<>();
+    // Endpoint id the game knows -> session.
+    private final Map<String, Session> sessionsByStableEndpoint = new HashMap<>();
+    // Connections a session left for a newer one before their disconnect arrived.
+    private final Set<String> supersededEndpoints = new HashSet<>();
+    // Discovered endpoints whose advertised name carried tokens.
+    private final Set<String> tokenAwareEndpoints = new HashSet<>();
+
+    private volatile boolean enabled;
+    private int maxReplayMessages = DEFAULT_MAX_REPLAY_MESSAGES;
+    private long resumeTimeoutMillis = DEFAULT_RESUME_TIMEOUT_MILLIS;
+    private long nextSequence;
+
+    public NearbySessionManager(ConnectionsClient client, NearbyBroadcaster broadcaster) {
+        this(client, broadcaster, getDefaultScheduler());
+    }
+
+    NearbySessionManager(ConnectionsClient client, NearbyBroadcaster broadcaster,
+            ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.broadcaster = broadcaster;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Turns session resumption on for connections made from now on. Must be
+     * called before advertising or requesting connections.
+     */
+    public void enable(int maxReplayMessages, int resumeTimeoutMillis) {
+        if (maxReplayMessages < 1 || resumeTimeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                    "maxReplayMessages must be positive and resumeTimeoutMillis must not be negative");
+        }
+        synchronized (lock) {
+            this.maxReplayMessages = maxReplayMessages;
+            this.resumeTimeoutMillis = resumeTimeoutMillis;
+            this.enabled = true;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Returns the name to advertise with, announcing session support if enabled. */
+    public String getAdvertisedName(String name) {
+        return enabled ? EndpointNames.withToken(name, TOKEN_KEY, "") : name;
+    }
+
+    /**
+     * Records whether a discovered advertiser understands name tokens. Called
+     * by {@link EndpointDiscoveryCallbackProxy}.
+     */
+    public void onEndpointFound(String endpointId, String advertisedName) {
+        synchronized (lock) {
+            if (EndpointNames.hasTokens(advertisedName)) {
+                tokenAwareEndpoints.add(endpointId);
+            } else {
+                tokenAwareEndpoints.remove(endpointId);
+            }
+        }
+    }
+
+    /**
+     * Requests a connection like {@link ConnectionsClient#requestConnection},
+     * offering a new session to the advertiser if enabled. The tokens in
+     * {@code name} are stripped unless the advertiser was discovered with
+     * tokens of its own.
+     */
+    public Task<Void> requestConnection(String name, String endpointId,
+            ConnectionLifecycleCallbackProxy callback) {
+        boolean tokenAware;
+        synchronized (lock) {
+            tokenAware = tokenAwareEndpoints.contains(endpointId);
+        }
+        if (!tokenAware) {
+            return client.requestConnection(EndpointNames.getDisplayName(name), endpointId, callback);
+        }
+        if (!enabled) {
+            return client.requestConnection(name, endpointId, callback);
+        }
+        String sessionId = Long.toHexString(random.nextLong());
+        String requestName = EndpointNames.withToken(name, TOKEN_KEY, sessionId);
+        synchronized (lock) {
+            Session previous = sessionsByEndpoint.get(endpointId);
+            if (previous != null) {
+                closeLocked(previous);
+            }
+            addLocked(new Session(sessionId, endpointId, /* requester= */ true, requestName, callback));
+        }
+        return client.requestConnection(requestName, endpointId, callback);
+    }
+
+    /**
+     * Accepts a connection like {@link ConnectionsClient#acceptConnection}.
+     * The payload callback is kept to accept the session's later reconnects.
+     */
+    public Task<Void> acceptConnection(String endpointId, PayloadCallbackProxy callback) {
+        synchronized (lock) {
+            Session session = sessionsByEndpoint.get(endpointId);
+            if (session != null) {
+                session.payloadCallback = callback;
+            }
+        }
+        return client.acceptConnection(endpointId, callback);
+    }
+
+    /**
+     * Sends {@code message} to the given endpoints. Reliable messages to a
+     * suspended session are kept and sent once it resumes. Returns the number
+     * of endpoints the message was accepted for; only unreliable messages are
+     * dropped by an endpoint whose send queue is full.
+     */
+    public int send(List<String> endpointIds, byte[] message, boolean reliable) {
+        List<String> plainEndpoints = new ArrayList<>();
+        int accepted = 0;
+        synchronized (lock) {
+            List<String> sessionEndpoints = new ArrayList<>();
+            byte[] frame = null;
+            long sequence = 0;
+            for (String endpointId : endpointIds) {
+                Session session = sessionsByStableEndpoint.get(endpointId);
+                if (session == null || session.state == STATE_PENDING) {
+                    plainEndpoints.add(endpointId);
+                    continue;
+                }
+                if (frame == null) {
+                    if (reliable) {
+                        sequence = ++nextSequence;
+                        frame = sequencedFrame(FRAME_RELIABLE, sequence, message);
+                    } else {
+                        frame = new byte[message.length + 1];
+                        frame[0] = FRAME_UNRELIABLE;
+                        System.arraycopy(message, 0, frame, 1, message.length);
+                    }
+                }
+                if (reliable) {
+                    addToReplayLocked(session, new SentMessage(sequence, frame));
+                }
+                if (session.state == STATE_CONNECTED) {
+                    sessionEndpoints.add(session.endpointId);
+                } else if (reliable) {
+                    // Sent when the session resumes.
+                    accepted++;
+                }
+            }
+            // Sent under the lock so that a resume cannot replay older messages after it.
+            // Reliable messages are never dropped by the send queue, as without sessions.
+            if (!sessionEndpoints.isEmpty()) {
+                if (reliable) {
+                    broadcaster.broadcastReliable(sessionEndpoints, frame);
+                    accepted += sessionEndpoints.size();
+                } else {
+                    accepted += broadcaster.broadcast(sessionEndpoints, frame);
+                }
+            }
+        }
+        if (!plainEndpoints.isEmpty()) {
+            if (reliable) {
+                broadcaster.broadcastReliable(plainEndpoints, message);
+                accepted += plainEndpoints.size();
+            } else {
+                accepted += broadcaster.broadcast(plainEndpoints, message);
+            }
+        }
+        return accepted;
+    }
+
+    /** Ends the session with {@code endpointId}, if any, and disconnects. */
+    public void disconnect(String endpointId) {
+        String current = endpointId;
+        synchronized (lock) {
+            Session session = sessionsByStableEndpoint.get(endpointId);
+            if (session != null) {
+                current = session.endpointId;
+                closeLocked(session);
+            }
+        }
+        broadcaster.removeEndpoint(current);
+        client.disconnectFromEndpoint(current);
+    }
+
+    /** Ends every session, e.g. when all endpoints are stopped. */
+    public void disconnectAll() {
+        synchronized (lock) {
+            for (Session session : new ArrayList<>(sessionsById.values())) {
+                closeLocked(session);
+            }
+        }
+    }
+
+    public SessionStats getStats(String endpointId) {
+        synchronized (lock) {
+            Session session = sessionsByStableEndpoint.get(endpointId);
+            return session == null ? null : new SessionStats(session);
+        }
+    }
+
+    /**
+     * Returns the id of the current connection to the peer the game knows as
+     * {@code endpointId}, which is what the broadcaster's state is kept under.
+     */
+    public String getCurrentEndpointId(String endpointId) {
+        synchronized (lock) {
+            Session session = sessionsByStableEndpoint.get(endpointId);
+            return session == null ? endpointId : session.endpointId;
+        }
+    }
+
+    /**
+     * Returns the endpoint id the game knows for the connection
+     * {@code endpointId}, or null if it does not carry a session.
+     */
+    String getStableEndpointId(String endpointId) {
+        synchronized (lock) {
+            Session session = sessionsByEndpoint.get(endpointId);
+            return session == null || !session.isFramed() ? null : session.stableEndpointId;
+        }
+    }
+
+    /**
+     * Called from {@link ConnectionLifecycleCallbackProxy}. Returns true if
+     * this is a session resuming, which is accepted here and not reported to
+     * the game.
+     */
+    boolean onConnectionInitiated(String endpointId, String peerName, boolean incoming,
+            ConnectionLifecycleCallbackProxy callback) {
+        if (!enabled) {
+            return false;
+        }
+        String token = EndpointNames.getToken(peerName, TOKEN_KEY);
+        Session resuming = null;
+        String superseded = null;
+        synchronized (lock) {
+            if (incoming) {
+                if (token == null || token.isEmpty()) {
+                    return false;
+                }
+                Session session = sessionsById.get(token);
+                if (session == null) {
+                    addLocked(new Session(token, endpointId, /* requester= */ false, null, callback));
+                    return false;
+                }
+                if (session.isFramed() && session.resumable && session.payloadCallback != null) {
+                    // The peer reconnected before the old connection was reported
+                    // as lost; treat it as a dropout and resume on the new one.
+                    Log.d(TAG, "Session with " + session.stableEndpointId + " reconnected as " + endpointId
+                            + " before " + session.endpointId + " disconnected");
+                    superseded = session.endpointId;
+                    supersededEndpoints.add(superseded);
+                    suspendLocked(session);
+                }
+                if (session.state == STATE_SUSPENDED && session.payloadCallback != null) {
+                    sessionsByEndpoint.remove(session.endpointId);
+                    broadcaster.moveEndpoint(session.endpointId, endpointId);
+                    session.endpointId = endpointId;
+                    sessionsByEndpoint.put(endpointId, session);
+                    session.state = STATE_ACCEPTING;
+                    resuming = session;
+                } else {
+                    // Still being set up, or cannot be resumed. Handing the
+                    // connection to the game would give it the session's frames.
+                    Log.w(TAG, "Rejecting reconnect of session with " + session.stableEndpointId
+                            + " in state " + session.state);
+                }
+            } else {
+                Session session = sessionsByEndpoint.get(endpointId);
+                if (session == null) {
+                    return false;
+                }
+                if (token == null) {
+                    // The advertiser does not support sessions.
+                    closeLocked(session);
+                } else if (session.state == STATE_SUSPENDED) {
+                    session.state = STATE_ACCEPTING;
+                    resuming = session;
+                }
+            }
+        }
+        if (resuming == null) {
+            if (!incoming) {
+                return false;
+            }
+            client.rejectConnection(endpointId);
+            return true;
+        }
+        if (superseded != null) {
+            client.disconnectFromEndpoint(superseded);
+        }
+        Log.d(TAG, "Resuming session with " + resuming.stableEndpointId + " as " + endpointId);
+        client.acceptConnection(endpointId, resuming.payloadCallback);
+        return true;
+    }
+
+    /**
+     * Called from {@link ConnectionLifecycleCallbackProxy}. Returns true if
+     * the result belongs to a resume and is not reported to the game.
+     */
+    boolean onConnectionResult(String endpointId, boolean success) {
+        synchronized (lock) {
+            Session session = sessionsByEndpoint.get(endpointId);
+            if (session == null) {
+                return false;
+            }
+            if (session.state == STATE_PENDING) {
+                if (success) {
+                    session.state = STATE_CONNECTED;
+                } else {
+                    closeLocked(session);
+                }
+                return false;
+            }
+            if (session.state != STATE_ACCEPTING) {
+                return false;
+            }
+            if (success) {
+                session.state = STATE_REPLAYING;
+                broadcaster.broadcast(Collections.singletonList(endpointId),
+                        sequencedFrame(FRAME_RESUME, session.lastReceivedSequence, new byte[0]));
+            } else {
+                session.state = STATE_SUSPENDED;
+                if (session.requester) {
+                    scheduleReconnectLocked(session);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Called from {@link ConnectionLifecycleCallbackProxy}. Returns the
+     * endpoint id to report the disconnect with, or null if the session was
+     * suspended and the disconnect is not reported.
+     */
+    String onDisconnected(String endpointId) {
+        synchronized (lock) {
+            if (supersededEndpoints.remove(endpointId)) {
+                // Its session already moved on to a newer connection.
+                return null;
+            }
+            Session session = sessionsByEndpoint.get(endpointId);
+            if (session == null) {
+                broadcaster.removeEndpoint(endpointId);
+                return endpointId;
+            }
+            if (!enabled || !session.resumable || session.payloadCallback == null
+                    || session.state == STATE_PENDING || session.state == STATE_SUSPENDED) {
+                broadcaster.removeEndpoint(endpointId);
+                closeLocked(session);
+                return session.stableEndpointId;
+            }
+            // The replay resends what was queued; the game's send policy stays.
+            broadcaster.clearEndpoint(endpointId);
+            suspendLocked(session);
+            return null;
+        }
+    }
+
+    private void suspendLocked(final Session session) {
+        Log.d(TAG, "Suspending session with " + session.stableEndpointId);
+        session.state = STATE_SUSPENDED;
+        session.attempt = 0;
+        session.resumeTimeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                giveUp(session);
+            }
+        }, resumeTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (session.requester) {
+            scheduleReconnectLocked(session);
+        }
+    }
+
+    /**
+     * Called from {@link PayloadCallbackProxy} for connections that carry a
+     * session. Returns the message to hand to the game, or null if the frame
+     * was only meant for the session layer.
+     */
+    byte[] onMessageReceived(String endpointId, byte[] frame) {
+        if (frame.length == 0) {
+            return null;
+        }
+        synchronized (lock) {
+            Session session = sessionsByEndpoint.get(endpointId);
+            if (session == null) {
+                return frame;
+            }
+            switch (frame[0]) {
+                case FRAME_RELIABLE: {
+                    if (frame.length < SEQUENCE_HEADER_SIZE) {
+                        return null;
+                    }
+                    long sequence = readSequence(frame);
+                    if (sequence <= session.lastReceivedSequence) {
+                        session.duplicateMessages++;
+                        return null;
+                    }
+                    session.lastReceivedSequence = sequence;
+                    scheduleAckLocked(session);
+                    byte[] message = new byte[frame.length - SEQUENCE_HEADER_SIZE];
+                    System.arraycopy(frame, SEQUENCE_HEADER_SIZE, message, 0, message.length);
+                    return message;
+                }
+                case FRAME_UNRELIABLE: {
+                    byte[] message = new byte[frame.length - 1];
+                    System.arraycopy(frame, 1, message, 0, message.length);
+                    return message;
+                }
+                case FRAME_ACK:
+                    if (frame.length >= SEQUENCE_HEADER_SIZE) {
+                        trimReplayLocked(session, readSequence(frame));
+                    }
+                    return null;
+                case FRAME_RESUME:
+                    if (frame.length >= SEQUENCE_HEADER_SIZE) {
+                        replayLocked(session, readSequence(frame));
+                    }
+                    return null;
+                default:
+                    Log.w(TAG, "Dropping unknown frame type " + frame[0] + " from " + endpointId);
+                    return null;
+            }
+        }
+    }
+
+    private void replayLocked(Session session, long peerLastReceived) {
+        trimReplayLocked(session, peerLastReceived);
+        List<byte[]> frames = new ArrayList<>(session.replay.size());
+        for (SentMessage message : session.replay) {
+            frames.add(message.frame);
+        }
+        broadcaster.enqueueAll(session.endpointId, frames);
+        session.replayedMessages += session.replay.size();
+        session.resumes++;
+        session.state = STATE_CONNECTED;
+        if (session.resumeTimeout != null) {
+            session.resumeTimeout.cancel(false);
+            session.resumeTimeout = null;
+        }
+        Log.d(TAG, "Resumed session with " + session.stableEndpointId + ", replayed "
+                + session.replay.size() + " messages");
+        // The peer may have missed our acknowledgements, too.
+        session.lastAckedSequence = 0;
+        scheduleAckLocked(session);
+    }
+
+    private void reconnect(final Session session) {
+        synchronized (lock) {
+            if (session.state != STATE_SUSPENDED) {
+                return;
+            }
+            session.reconnectAttempts++;
+        }
+        client.requestConnection(session.requestName, session.endpointId, session.lifecycleCallback)
+            .addOnFailureListener(
+                new OnFailureListener() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        Log.d(TAG, "Reconnecting to " + session.endpointId + " failed: " + e.getMessage());
+                        synchronized (lock) {
+                            if (session.state == STATE_SUSPENDED) {
+                                scheduleReconnectLocked(session);
+                            }
+                        }
+                    }
+                });
+    }
+
+    private void giveUp(Session session) {
+        synchronized (lock) {
+            if (session.state != STATE_SUSPENDED && session.state != STATE_ACCEPTING) {
+                return;
+            }
+            Log.d(TAG, "Giving up on session with " + session.stableEndpointId);
+            broadcaster.removeEndpoint(session.endpointId);
+            closeLocked(session);
+        }
+        client.disconnectFromEndpoint(session.endpointId);
+        session.lifecycleCallback.reportDisconnected(session.stableEndpointId);
+    }
+
+    private void scheduleReconnectLocked(final Session session) {
+        long delay = Math.min(INITIAL_BACKOFF_MILLIS << Math.min(session.attempt, 16), MAX_BACKOFF_MILLIS);
+        session.attempt++;
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                reconnect(session);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleAckLocked(final Session session) {
+        if (session.ackScheduled) {
+            return;
+        }
+        session.ackScheduled = true;
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (lock) {
+                    session.ackScheduled = false;
+                    if (session.state != STATE_CONNECTED
+                            || session.lastReceivedSequence <= session.lastAckedSequence) {
+                        return;
+                    }
+                    session.lastAckedSequence = session.lastReceivedSequence;
+                    broadcaster.broadcast(Collections.singletonList(session.endpointId),
+                            sequencedFrame(FRAME_ACK, session.lastReceivedSequence, new byte[0]));
+                }
+            }
+        }, ACK_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void addToReplayLocked(Session session, SentMessage message) {
+        if (session.replay.size() >= maxReplayMessages) {
+            session.replay.poll();
+            if (session.resumable) {
+                Log.w(TAG, "Replay buffer for " + session.stableEndpointId + " overflowed; "
+                        + "the session can no longer be resumed");
+                session.resumable = false;
+            }
+        }
+        session.replay.add(message);
+    }
+
+    private static void trimReplayLocked(Session session, long acknowledged) {
+        while (!session.replay.isEmpty() && session.replay.peek().sequence <= acknowledged) {
+            session.replay.poll();
+        }
+    }
+
+    private void addLocked(Session session) {
+        sessionsById.put(session.sessionId, session);
+        sessionsByEndpoint.put(session.endpointId, session);
+        sessionsByStableEndpoint.put(session.stableEndpointId, session);
+    }
+
+    private void closeLocked(Session session) {
+        session.state = STATE_CLOSED;
+        session.replay.clear();
+        if (session.resumeTimeout != null) {
+            session.resumeTimeout.cancel(false);
+            session.resumeTimeout = null;
+        }
+        sessionsById.remove(session.sessionId);
+        if (sessionsByEndpoint.get(session.endpointId) == session) {
+            sessionsByEndpoint.remove(session.endpointId);
+        }
+        if (sessionsByStableEndpoint.get(session.stableEndpointId) == session) {
+            sessionsByStableEndpoint.remove(session.stableEndpointId);
+        }
+    }
+
+    private static byte[] sequencedFrame(byte type, long sequence, byte[] message) {
+        byte[] frame = new byte[SEQUENCE_HEADER_SIZE + message.length];
+        frame[0] = type;
+        for (int i = 0; i < 8; i++) {
+            frame[1 + i] = (byte) (sequence >>> (56 - 8 * i));
+        }
+        System.arraycopy(message, 0, frame, SEQUENCE_HEADER_SIZE, message.length);
+        return frame;
+    }
+
+    private static long readSequence(byte[] frame) {
+        long sequence = 0;
+        for (int i = 0; i < 8; i++) {
+            sequence = (sequence << 8) | (frame[1 + i] & 0xff);
+        }
+        return sequence;
+    }
+
+    private static synchronized ScheduledExecutorService getDefaultScheduler() {
+        if (defaultScheduler == null) {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                    1, new BridgeStartup.BackgroundThreadFactory("gpg-nearby-session"));
+            // Resume timeouts are usually cancelled long before they are due.
+            scheduler.setRemoveOnCancelPolicy(true);
+            defaultScheduler = scheduler;
+        }
+        return defaultScheduler;
+    }
+}
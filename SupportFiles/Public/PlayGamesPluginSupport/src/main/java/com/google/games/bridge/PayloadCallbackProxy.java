@@ -1,24 +1,83 @@
 package com.google.games.bridge;
 
+import android.util.Log;
 import com.google.android.gms.nearby.connection.Payload;
 import com.google.android.gms.nearby.connection.PayloadCallback;
 import com.google.android.gms.nearby.connection.PayloadTransferUpdate;
 
 public class PayloadCallbackProxy extends PayloadCallback {
+    private static final String TAG = "PayloadCallbackProxy";
+
     private Callback callback;
+    private volatile TransferUpdateListener transferUpdateListener;
+    private volatile NearbyCompression compression;
+    private volatile NearbySessionManager sessions;
 
     public PayloadCallbackProxy(Callback callback) {
         this.callback = callback;
     }
 
+    public void setTransferUpdateListener(TransferUpdateListener listener) {
+        this.transferUpdateListener = listener;
+    }
+
+    public void setCompression(NearbyCompression compression) {
+        this.compression = compression;
+    }
+
+    public void setSessions(NearbySessionManager sessions) {
+        this.sessions = sessions;
+    }
+
     public void onPayloadReceived(/* @NonNull */ String endpointId, /* @NonNull */ Payload payload) {
-        callback.onPayloadReceived(endpointId, payload);
+        long start = MainThreadWatchdog.begin();
+        try {
+            NearbyCompression compression = this.compression;
+            if (compression != null && payload.getType() == Payload.Type.BYTES
+                    && compression.isNegotiated(endpointId)) {
+                byte[] message = compression.decode(payload.asBytes());
+                if (message == null) {
+                    Log.w(TAG, "Dropping malformed message from " + endpointId);
+                    return;
+                }
+                payload = Payload.fromBytes(message);
+            }
+            NearbySessionManager sessions = this.sessions;
+            String stableEndpointId = sessions == null || payload.getType() != Payload.Type.BYTES
+                    ? null
+                    : sessions.getStableEndpointId(endpointId);
+            if (stableEndpointId != null) {
+                byte[] message = sessions.onMessageReceived(endpointId, payload.asBytes());
+                if (message == null) {
+                    return;
+                }
+                payload = Payload.fromBytes(message);
+                endpointId = stableEndpointId;
+            }
+            callback.onPayloadReceived(endpointId, payload);
+        } finally {
+            MainThreadWatchdog.end("PayloadCallbackProxy.onPayloadReceived", endpointId, start);
+        }
     }
 
     public void onPayloadTransferUpdate(/* @NonNull */ String endpointId, /* @NonNull */ PayloadTransferUpdate update) {
+        TransferUpdateListener listener = transferUpdateListener;
+        if (listener == null) {
+            return;
+        }
+        long start = MainThreadWatchdog.begin();
+        try {
+            listener.onPayloadTransferUpdate(endpointId, update);
+        } finally {
+            MainThreadWatchdog.end("PayloadCallbackProxy.onPayloadTransferUpdate", endpointId, start);
+        }
     }
 
     public interface Callback {
         void onPayloadReceived(/* @NonNull */ String endpointId, /* @NonNull */ Payload payload);
     }
+
+    public interface TransferUpdateListener {
+        void onPayloadTransferUpdate(/* @NonNull */ String endpointId, /* @NonNull */ PayloadTransferUpdate update);
+    }
 }
@@ -4,7 +4,6 @@ import android.app.Activity;
 import android.content.Intent;
 import android.util.Log;
 import com.google.android.gms.games.GamesActivityResultCodes;
-import com.google.android.gms.games.PlayGames;
 import com.google.android.gms.games.SnapshotsClient;
 import com.google.android.gms.games.snapshot.SnapshotMetadata;
 import com.google.android.gms.tasks.OnFailureListener;
@@ -56,26 +55,31 @@ class SelectSnapshotUiRequest implements HelperFragment.Request {
     }
 
     public void process(final HelperFragment helperFragment) {
-        final Activity activity = helperFragment.getActivity();
-        SnapshotsClient client = PlayGames.getSnapshotsClient(activity);
-        client
-            .getSelectSnapshotIntent(title, allowAddButton, allowDelete, maxSnapshots)
-            .addOnSuccessListener(
-                activity,
-                new OnSuccessListener<Intent>() {
-                    @Override
-                    public void onSuccess(Intent intent) {
-                        Utils.startActivityForResult(helperFragment, intent, HelperFragment.RC_SELECT_SNAPSHOT_UI);
-                    }
-                })
-            .addOnFailureListener(
-                activity,
-                new OnFailureListener() {
-                    @Override
-                    public void onFailure(Exception e) {
-                        setFailure(e);
-                    }
-                });
+        long start = MainThreadWatchdog.begin();
+        try {
+            final Activity activity = helperFragment.getActivity();
+            SnapshotsClient client = ClientRegistry.getSnapshotsClient(activity);
+            client
+                .getSelectSnapshotIntent(title, allowAddButton, allowDelete, maxSnapshots)
+                .addOnSuccessListener(
+                    activity,
+                    new OnSuccessListener<Intent>() {
+                        @Override
+                        public void onSuccess(Intent intent) {
+                            Utils.startActivityForResult(helperFragment, intent, HelperFragment.RC_SELECT_SNAPSHOT_UI);
+                        }
+                    })
+                .addOnFailureListener(
+                    activity,
+                    new OnFailureListener() {
+                        @Override
+                        public void onFailure(Exception e) {
+                            setFailure(e);
+                        }
+                    });
+        } finally {
+            MainThreadWatchdog.end("SelectSnapshotUiRequest.process", getClass(), start);
+        }
     }
 
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
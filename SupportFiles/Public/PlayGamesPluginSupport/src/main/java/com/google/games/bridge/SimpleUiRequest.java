@@ -25,24 +25,29 @@ class SimpleUiRequest implements HelperFragment.Request {
     }
 
     public void process(final HelperFragment helperFragment) {
-        final Activity activity = helperFragment.getActivity();
-        getIntent(activity)
-            .addOnSuccessListener(
-                activity,
-                new OnSuccessListener<Intent>() {
-                    @Override
-                    public void onSuccess(Intent intent) {
-                        Utils.startActivityForResult(helperFragment, intent, HelperFragment.RC_SIMPLE_UI);
-                    }
-                })
-            .addOnFailureListener(
-                activity,
-                new OnFailureListener() {
-                    @Override
-                    public void onFailure(Exception e) {
-                        setFailure(e);
-                    }
-                });
+        long start = MainThreadWatchdog.begin();
+        try {
+            final Activity activity = helperFragment.getActivity();
+            getIntent(activity)
+                .addOnSuccessListener(
+                    activity,
+                    new OnSuccessListener<Intent>() {
+                        @Override
+                        public void onSuccess(Intent intent) {
+                            Utils.startActivityForResult(helperFragment, intent, HelperFragment.RC_SIMPLE_UI);
+                        }
+                    })
+                .addOnFailureListener(
+                    activity,
+                    new OnFailureListener() {
+                        @Override
+                        public void onFailure(Exception e) {
+                            setFailure(e);
+                        }
+                    });
+        } finally {
+            MainThreadWatchdog.end("SimpleUiRequest.process", getClass(), start);
+        }
     }
 
     public void onActivityResult(int requestCode, int resultCode, Intent data) {